@@ -0,0 +1,110 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+//Monte Carlo estimate of the probability that each cell is on fire at each step, from many independent fire rollouts
+//Unlike calculateProbability() in MazeManager, which follows a single path from the fire, the rollouts account for every way the
+//fire can reach a cell. Rollouts use the same spread rule as the strategies (FireSimulator) and are split across a fork/join pool,
+//each worker with its own simulator, random stream split from the seed and ignition-time histogram; the histograms are merged into
+//a cumulative (horizon + 1) x cells table, so probability() is a single array read
+public class BurnProbabilityMap {
+
+    private final int dim;
+    private final int cells;
+    private final int horizon;
+    private final int rollouts;
+    private final int[] burning;    //burning[t * cells + cell] = rollouts in which cell is on fire after t steps
+
+    private BurnProbabilityMap(int dim, int horizon, int rollouts, int[] burning){
+        this.dim = dim;
+        this.cells = dim * dim;
+        this.horizon = horizon;
+        this.rollouts = rollouts;
+        this.burning = burning;
+    }
+
+    //Runs 'rollouts' fire simulations of 'horizon' steps from the current state of the maze on the common fork/join pool
+    public static BurnProbabilityMap estimate(MazeGrid maze, double q, int rollouts, int horizon, long seed){
+        return estimate(maze, q, rollouts, horizon, seed, ForkJoinPool.commonPool());
+    }
+
+    public static BurnProbabilityMap estimate(MazeGrid maze, double q, int rollouts, int horizon, long seed, ForkJoinPool pool){
+        if(rollouts < 1) throw new IllegalArgumentException("Number of rollouts must be positive: " + rollouts);
+        if(horizon < 0) throw new IllegalArgumentException("Horizon must not be negative: " + horizon);
+        int dim = maze.getDim();
+        int cells = dim * dim;
+        int workers = Math.min(rollouts, pool.getParallelism());
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<int[]>> tasks = new ArrayList<>(workers);
+        for(int w=0; w < workers; w++){
+            int count = rollouts / workers + ((w < rollouts % workers) ? 1 : 0);
+            SplittableRandom stream = root.split();
+            tasks.add(() -> rollOut(maze, q, count, horizon, stream));
+        }
+        int[] burning = new int[(horizon + 1) * cells];
+        try{
+            for(Future<int[]> result : pool.invokeAll(tasks)){
+                int[] ignitions = result.get();
+                for(int i=0; i < burning.length; i++){
+                    burning[i] += ignitions[i];
+                }
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while estimating burn probabilities", e);
+        }catch(ExecutionException e){
+            throw new IllegalStateException("Fire rollout failed", e.getCause());
+        }
+        //Turn ignition counts per step into counts of rollouts burning by each step
+        for(int t=1; t <= horizon; t++){
+            int row = t * cells;
+            int previous = row - cells;
+            for(int cell=0; cell < cells; cell++){
+                burning[row + cell] += burning[previous + cell];
+            }
+        }
+        return new BurnProbabilityMap(dim, horizon, rollouts, burning);
+    }
+
+    //One worker's share of the rollouts, returns how many times each cell ignited at each step (cells already burning count at step 0)
+    private static int[] rollOut(MazeGrid maze, double q, int count, int horizon, SplittableRandom stream){
+        int cells = maze.getDim() * maze.getDim();
+        int[] ignitions = new int[(horizon + 1) * cells];
+        for(int cell=0; cell < cells; cell++){
+            if(maze.getCell(cell) == 2) ignitions[cell] = count;
+        }
+        FireSimulator fire = new FireSimulator(stream, FireSimulator.SPARSE);
+        for(int r=0; r < count; r++){
+            fire.reset(maze, q);
+            for(int t=1; t <= horizon && fire.isSpreading(); t++){
+                fire.step();
+                int row = t * cells;
+                for(int i=0; i < fire.getIgnitedCount(); i++){
+                    ignitions[row + fire.getIgnited(i)]++;
+                }
+            }
+        }
+        return ignitions;
+    }
+
+    //Estimated probability that cell (x, y) is on fire after t steps, steps past the horizon use the value at the horizon
+    public double probability(int x, int y, int t){
+        if(t > horizon) t = horizon;
+        return burning[t * cells + x * dim + y] / (double) rollouts;
+    }
+
+    public int getHorizon(){
+        return horizon;
+    }
+
+    public int getRollouts(){
+        return rollouts;
+    }
+
+}
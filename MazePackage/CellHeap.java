@@ -0,0 +1,68 @@
+package MazePackage;
+
+import java.util.Arrays;
+
+//Binary min-heap of cell indexes ordered by a long priority key, kept as two parallel primitive arrays that grow on demand
+//Used by the A*, jump point, D* Lite, space-time and hierarchical searches and the ignition time sampler; there is no decrease-key,
+//callers push again and skip stale entries
+class CellHeap {
+
+    private long[] keys = new long[1024];
+    private int[] cells = new int[1024];
+    private int size = 0;
+
+    void clear(){
+        size = 0;
+    }
+
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    void push(int cell, long key){
+        if(size == keys.length){
+            keys = Arrays.copyOf(keys, size * 2);
+            cells = Arrays.copyOf(cells, size * 2);
+        }
+        int i = size++;
+        while(i > 0){
+            int up = (i - 1) >>> 1;
+            if(keys[up] <= key) break;
+            keys[i] = keys[up];
+            cells[i] = cells[up];
+            i = up;
+        }
+        keys[i] = key;
+        cells[i] = cell;
+    }
+
+    int peekCell(){
+        return cells[0];
+    }
+
+    long peekKey(){
+        return keys[0];
+    }
+
+    //Removes and returns the cell with the smallest key
+    int pop(){
+        int top = cells[0];
+        size--;
+        long key = keys[size];
+        int cell = cells[size];
+        int i = 0;
+        while(true){
+            int child = 2 * i + 1;
+            if(child >= size) break;
+            if(child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if(keys[child] >= key) break;
+            keys[i] = keys[child];
+            cells[i] = cells[child];
+            i = child;
+        }
+        keys[i] = key;
+        cells[i] = cell;
+        return top;
+    }
+
+}
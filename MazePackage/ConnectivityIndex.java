@@ -0,0 +1,84 @@
+package MazePackage;
+
+//Labels the connected components of the open cells (not obstacle, not fire) of a maze with union-find in one pass over the grid
+//After build() any "can A reach B" question is answered in constant time, giving the same answer as mazeDFS(maze, A, B)
+//The index is a snapshot, so it has to be rebuilt after the maze changes (e.g. after the fire advances)
+public class ConnectivityIndex {
+
+    private int dim = 0;
+    private int[] root = new int[0];   //union-find parent of each cell, -1 for cells that are not open
+
+    public ConnectivityIndex(){
+    }
+
+    public ConnectivityIndex(MazeGrid maze){
+        build(maze);
+    }
+
+    //Rebuilds the index for the maze passed, reusing the previous array when it is big enough
+    public void build(MazeGrid maze){
+        dim = maze.getDim();
+        int cells = dim * dim;
+        if(root.length < cells) root = new int[cells];
+        for(int i=0; i < cells; i++){
+            int value = maze.getCell(i);
+            if(value == 1 || value == 2){
+                root[i] = -1;
+                continue;
+            }
+            root[i] = i;
+            //Join with the open cells above and to the left, the only neighbours already labelled
+            if(i >= dim && root[i - dim] >= 0) union(i, i - dim);
+            if(i % dim != 0 && root[i - 1] >= 0) union(i, i - 1);
+        }
+        //Roots always have the smallest index in their component, so a second pass in index order points every cell directly at its root
+        for(int i=0; i < cells; i++){
+            if(root[i] >= 0) root[i] = root[root[i]];
+        }
+    }
+
+    //Returns true if goal can be reached from start, start itself does not have to be open (e.g. the fire's starting cell)
+    public boolean connected(Point start, Point goal){
+        return connected(start.x, start.y, goal.x, goal.y);
+    }
+
+    public boolean connected(int startX, int startY, int goalX, int goalY){
+        int start = startX * dim + startY;
+        int goal = goalX * dim + goalY;
+        if(start == goal) return true;
+        int goalComponent = root[goal];
+        if(goalComponent < 0) return false;
+        if(root[start] >= 0) return root[start] == goalComponent;
+        //Start is blocked, so it reaches whatever its open neighbours reach
+        return (startX > 0 && root[start - dim] == goalComponent)
+                || (startX < dim - 1 && root[start + dim] == goalComponent)
+                || (startY > 0 && root[start - 1] == goalComponent)
+                || (startY < dim - 1 && root[start + 1] == goalComponent);
+    }
+
+    //Component label of cell (x, y), -1 if the cell is not open
+    public int componentOf(int x, int y){
+        return root[x * dim + y];
+    }
+
+    private int find(int cell){
+        while(root[cell] != cell){
+            root[cell] = root[root[cell]];  //path halving
+            cell = root[cell];
+        }
+        return cell;
+    }
+
+    //Links the root with the larger index under the one with the smaller index
+    private void union(int a, int b){
+        int rootA = find(a);
+        int rootB = find(b);
+        if(rootA == rootB) return;
+        if(rootA < rootB){
+            root[rootB] = rootA;
+        }else{
+            root[rootA] = rootB;
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//D* Lite incremental planner used by strategy2() to replan as the fire spreads
+//Searches backward from the goal so the g value of a cell is its distance to goal; when the agent moves only the key modifier km changes,
+//and when cells catch fire only those cells and their neighbours are updated and repaired, instead of searching the maze again from scratch
+//Keeps its own copy of which cells are blocked, so the maze it was created from can be replaced or modified freely afterwards
+public class DStarLite {
+
+    private static final int INF = Integer.MAX_VALUE / 4;
+
+    private final int dim;
+    private final int goal;
+    private int start;
+    private int lastStart;
+    private int km = 0;
+
+    private final long[] blocked;
+    private final int[] g;
+    private final int[] rhs;
+    private final long[] queuedKey;     //key each cell currently has in the queue, -1 if it is not queued
+
+    private final CellHeap heap = new CellHeap();  //entries whose key no longer matches queuedKey are stale and skipped
+
+    public DStarLite(MazeGrid maze, Point start, Point goal){
+        this.dim = maze.getDim();
+        int cells = dim * dim;
+        this.goal = goal.x * dim + goal.y;
+        this.start = start.x * dim + start.y;
+        this.lastStart = this.start;
+        blocked = new long[(cells + 63) >>> 6];
+        for(int i=0; i < cells; i++){
+            int value = maze.getCell(i);
+            if(value == 1 || value == 2) blocked[i >>> 6] |= 1L << i;
+        }
+        g = new int[cells];
+        rhs = new int[cells];
+        queuedKey = new long[cells];
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        Arrays.fill(queuedKey, -1L);
+        rhs[this.goal] = 0;
+        push(this.goal, calculateKey(this.goal));
+        computeShortestPath();
+    }
+
+    //True if the goal can currently be reached from the agent's cell
+    public boolean hasPath(){
+        return g[start] < INF;
+    }
+
+    //Best next step from the agent's cell toward the goal, null if there is no path
+    public Point nextStep(){
+        int next = bestSuccessor(start);
+        if(next < 0) return null;
+        return new Point(null, next / dim, next % dim);
+    }
+
+    //Moves the agent, only the key modifier changes so no search is needed
+    public void moveTo(Point p){
+        start = p.x * dim + p.y;
+    }
+
+    //Marks a cell as blocked (e.g. it caught fire) and queues it and its neighbours for repair, call replan() once all changes are in
+    public void blockCell(int x, int y){
+        int cell = x * dim + y;
+        if(isBlocked(cell)) return;
+        if(start != lastStart){
+            km += heuristic(lastStart, start);
+            lastStart = start;
+        }
+        blocked[cell >>> 6] |= 1L << cell;
+        updateVertex(cell);
+        if(x > 0) updateVertex(cell - dim);
+        if(x < dim - 1) updateVertex(cell + dim);
+        if(y > 0) updateVertex(cell - 1);
+        if(y < dim - 1) updateVertex(cell + 1);
+    }
+
+    //Repairs the search after blockCell() calls, only the cells affected by the changes are expanded again
+    public void replan(){
+        computeShortestPath();
+    }
+
+    //Current best path from the agent's cell to goal, null if there is no path
+    public ArrayList<Point> currentPath(){
+        if(!hasPath()) return null;
+        ArrayList<Point> path = new ArrayList<>();
+        Point prev = new Point(null, start / dim, start % dim);
+        path.add(prev);
+        for(int curr = start; curr != goal; ){
+            curr = bestSuccessor(curr);
+            if(curr < 0) return null;
+            prev = new Point(prev, curr / dim, curr % dim);
+            path.add(prev);
+        }
+        return path;
+    }
+
+//------------------------------ D* Lite ------------------------------
+    private void computeShortestPath(){
+        while(true){
+            int u = peek();
+            if(u < 0) return;
+            long oldKey = queuedKey[u];
+            if(oldKey >= calculateKey(start) && rhs[start] == g[start]) return;
+            heap.pop();
+            queuedKey[u] = -1L;
+            long newKey = calculateKey(u);
+            if(oldKey < newKey){
+                push(u, newKey);
+            }else if(g[u] > rhs[u]){
+                g[u] = rhs[u];
+                updateNeighbours(u);
+            }else{
+                g[u] = INF;
+                updateVertex(u);
+                updateNeighbours(u);
+            }
+        }
+    }
+
+    private void updateNeighbours(int cell){
+        int x = cell / dim;
+        int y = cell - x * dim;
+        if(x > 0) updateVertex(cell - dim);
+        if(x < dim - 1) updateVertex(cell + dim);
+        if(y > 0) updateVertex(cell - 1);
+        if(y < dim - 1) updateVertex(cell + 1);
+    }
+
+    private void updateVertex(int cell){
+        if(cell != goal){
+            int best = bestSuccessor(cell);
+            rhs[cell] = (best < 0) ? INF : g[best] + 1;
+        }
+        if(g[cell] != rhs[cell]){
+            push(cell, calculateKey(cell));
+        }else{
+            remove(cell);
+        }
+    }
+
+    //Neighbour with the lowest g reachable from cell, -1 if cell is blocked or has no neighbour with a finite g
+    private int bestSuccessor(int cell){
+        if(isBlocked(cell)) return -1;
+        int x = cell / dim;
+        int y = cell - x * dim;
+        int best = -1;
+        int bestG = INF;
+        if(x > 0 && isBetter(cell - dim, bestG)){ best = cell - dim; bestG = g[best]; }
+        if(x < dim - 1 && isBetter(cell + dim, bestG)){ best = cell + dim; bestG = g[best]; }
+        if(y > 0 && isBetter(cell - 1, bestG)){ best = cell - 1; bestG = g[best]; }
+        if(y < dim - 1 && isBetter(cell + 1, bestG)){ best = cell + 1; bestG = g[best]; }
+        return best;
+    }
+
+    private boolean isBetter(int cell, int bestG){
+        return !isBlocked(cell) && g[cell] < bestG;
+    }
+
+    private boolean isBlocked(int cell){
+        return (blocked[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    //Key (min(g, rhs) + h + km, min(g, rhs)) packed into a long so keys compare with a single comparison
+    private long calculateKey(int cell){
+        long min = Math.min(g[cell], rhs[cell]);
+        return ((min + heuristic(start, cell) + km) << 32) | min;
+    }
+
+    private int heuristic(int a, int b){
+        return Math.abs(a / dim - b / dim) + Math.abs(a % dim - b % dim);
+    }
+
+//------------------------------ Priority Queue ------------------------------
+    private void push(int cell, long key){
+        if(queuedKey[cell] == key) return;  //already queued with this key
+        queuedKey[cell] = key;
+        heap.push(cell, key);
+    }
+
+    private void remove(int cell){
+        queuedKey[cell] = -1L;
+    }
+
+    //Returns the queued cell with the smallest key without removing it, discarding stale entries on the way, -1 if the queue is empty
+    private int peek(){
+        while(!heap.isEmpty()){
+            int cell = heap.peekCell();
+            if(queuedKey[cell] == heap.peekKey()) return cell;
+            heap.pop();
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,105 @@
+package MazePackage;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//Runs every (parameter, trial) pair of an experiment as an independent task on the executor passed, instead of nested loops
+//Each task gets its own random stream derived from the experiment seed and its (parameter, trial) pair (RandomStreams.forTask()),
+//so what a task computes does not depend on which thread runs it or when, and a MazeManager of its own that does not print strategy
+//outcomes, since output from parallel tasks would interleave. Tasks add their results to ResultTables, whose totals are exact in any
+//order, so the aggregated results are the same for one thread or many and are printed once run() returns
+public class ExperimentRunner implements AutoCloseable {
+
+    //One task of an experiment, parameter is the index of the parameter value (e.g. of p or q) and trial the index of the repetition
+    public interface Task {
+        void run(int parameter, int trial, SplittableRandom rand, MazeManager manager);
+    }
+
+    //Executors.newVirtualThreadPerTaskExecutor() on Java 21 and later, null otherwise. The runtime version is checked once here; the
+    //factory is bound through a method handle because the code is compiled for Java 17, where it cannot be named directly
+    private static final MethodHandle VIRTUAL_THREAD_EXECUTOR = virtualThreadExecutorFactory();
+
+    private final ExecutorService executor;
+    private final long seed;
+
+    public ExperimentRunner(ExecutorService executor, long seed){
+        this.executor = executor;
+        this.seed = seed;
+    }
+
+    //Fixed pool of platform threads
+    public static ExecutorService platformThreads(int threads){
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    //One virtual thread per task when the JVM supports them (Java 21 and later), otherwise one platform thread per core
+    public static ExecutorService virtualThreads(){
+        if(VIRTUAL_THREAD_EXECUTOR == null) return platformThreads(Runtime.getRuntime().availableProcessors());
+        try{
+            return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invokeExact();
+        }catch(RuntimeException | Error e){
+            throw e;
+        }catch(Throwable e){
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+
+    //True if virtualThreads() really runs tasks on virtual threads
+    public static boolean supportsVirtualThreads(){
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    private static MethodHandle virtualThreadExecutorFactory(){
+        if(Runtime.version().feature() < 21) return null;
+        try{
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        }catch(ReflectiveOperationException e){
+            throw new IllegalStateException("Java " + Runtime.version().feature() + " has no virtual thread executor", e);
+        }
+    }
+
+    //Runs the task for every parameter in [0, parameters) and trial in [0, trials) and waits for all of them to finish
+    public void run(int parameters, int trials, Task task){
+        List<Callable<Void>> tasks = new ArrayList<>(parameters * trials);
+        for(int parameter=0; parameter < parameters; parameter++){
+            for(int trial=0; trial < trials; trial++){
+                int p = parameter;
+                int t = trial;
+                tasks.add(() -> {
+                    //a manager per task: its buffers are cheap to create, and virtual threads are never reused by another task
+                    MazeManager manager = new MazeManager();
+                    manager.setReportOutcomes(false);
+                    task.run(p, t, RandomStreams.forTask(seed, p, t), manager);
+                    return null;
+                });
+            }
+        }
+        try{
+            for(Future<Void> result : executor.invokeAll(tasks)){
+                result.get();
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running experiment", e);
+        }catch(ExecutionException e){
+            throw new IllegalStateException("Experiment task failed", e.getCause());
+        }
+    }
+
+    //Shuts the executor down
+    @Override
+    public void close(){
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,80 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+//Distance from every cell to its nearest fire, built with a single multi-source Breadth-First Search seeded from all cells on fire
+//Each reached cell also keeps a pointer to the neighbour one step closer to that fire, so the minimal fire path to any cell can be traced
+//Paths only pass through open cells (not obstacle, not fire), the same cells the searches in MazeManager can step on
+//Arrays are reused by later builds, so one instance must not be shared between threads
+public class FireDistanceField {
+
+    private int dim = 0;
+    private int[] distance = new int[0];
+    private int[] towardFire = new int[0];
+    private int[] queue = new int[0];
+
+    //Recomputes the field for the current state of the maze in O(cells)
+    public void build(MazeGrid maze){
+        dim = maze.getDim();
+        int cells = dim * dim;
+        if(distance.length < cells){
+            distance = new int[cells];
+            towardFire = new int[cells];
+            queue = new int[cells];
+        }
+        int head = 0;
+        int tail = 0;
+        for(int i=0; i < cells; i++){
+            if(maze.getCell(i) == 2){
+                distance[i] = 0;
+                towardFire[i] = i;
+                queue[tail++] = i;
+            }else{
+                distance[i] = -1;
+            }
+        }
+        while(head < tail){
+            int curr = queue[head++];
+            int x = curr / dim;
+            int y = curr - x * dim;
+            if(x > 0) tail = visit(maze, curr, curr - dim, tail);
+            if(x < dim - 1) tail = visit(maze, curr, curr + dim, tail);
+            if(y > 0) tail = visit(maze, curr, curr - 1, tail);
+            if(y < dim - 1) tail = visit(maze, curr, curr + 1, tail);
+        }
+    }
+
+    private int visit(MazeGrid maze, int curr, int next, int tail){
+        if(distance[next] >= 0) return tail;
+        int value = maze.getCell(next);
+        if(value == 1 || value == 2) return tail;
+        distance[next] = distance[curr] + 1;
+        towardFire[next] = curr;
+        queue[tail] = next;
+        return tail + 1;
+    }
+
+    //Number of steps from the nearest fire to cell (x, y), -1 if no fire can reach it
+    public int distanceTo(int x, int y){
+        return distance[x * dim + y];
+    }
+
+    //Minimal path from the nearest fire to cell (x, y), starting at the fire and ending at (x, y), null if no fire can reach it
+    public ArrayList<Point> pathFromFire(int x, int y){
+        int cell = x * dim + y;
+        if(distance[cell] < 0) return null;
+        ArrayList<Point> path = new ArrayList<>(distance[cell] + 1);
+        while(true){
+            path.add(new Point(null, cell / dim, cell % dim));
+            if(towardFire[cell] == cell) break;
+            cell = towardFire[cell];
+        }
+        Collections.reverse(path);
+        for(int i=1; i < path.size(); i++){
+            path.get(i).parent = path.get(i - 1);
+        }
+        return path;
+    }
+
+}
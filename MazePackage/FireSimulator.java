@@ -0,0 +1,373 @@
+package MazePackage;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+//Advances the fire one step at a time with the spread rule from the project description: an open cell with k burning neighbours
+//catches fire with probability 1 - (1 - q)^k
+//The simulator owns two grids and swaps them every step: the step reads the current grid and writes the next one, which only has to
+//catch up on the cells that ignited in the step before (it already holds everything older), so no grid is copied or allocated per step
+//The five possible probabilities (k = 0..4) are computed once per reset() instead of calling Math.pow for every cell
+//Three propagation modes give the same spread rule:
+//  DENSE  - every step scans all cells of the maze
+//  SPARSE - keeps the set of open cells next to the fire (the only ones that can ignite) and rolls just those, updating the set as
+//           cells ignite, so a step costs O(frontier) instead of O(dim^2); rolls use the same geometric countdowns as BITBOARD
+//  BITBOARD - keeps fire and open cells as bit masks (one long per 64 cells of a row) and counts burning neighbours for 64 cells at a
+//           time with shifts and bitwise adds. Cells with the same count k are independent trials with the same probability, so
+//           instead of one draw per cell each k keeps a geometric countdown of the trials left before its next ignition, and a word
+//           with no ignition costs one bit count per k; draws are only made when a cell ignites
+//The frontier and masks built by reset() are kept and copied back when the next reset() is for the same maze (same fingerprint),
+//so running many simulations from one state (e.g. BurnProbabilityMap) does not rescan the maze every time
+//Random numbers come from the stream passed in (see RandomStreams), starting a simulation from the same stream reproduces the same fire
+//Not thread safe, each MazeManager owns its own simulator
+public class FireSimulator {
+
+    public static final int DENSE = 0;
+    public static final int SPARSE = 1;
+    public static final int BITBOARD = 2;
+
+    private SplittableRandom rand;
+    private final int mode;
+    private final double[] spread = new double[5];   //probability of catching fire with k burning neighbours
+    private final double[] logMiss = new double[5];  //log(1 - spread[k]), for drawing the geometric countdowns
+    private MazeGrid current;
+    private MazeGrid next;
+    private int dim;
+
+    //Cells that ignited in the last step, which are also the cells the next grid is missing
+    private int[] ignited = new int[64];
+    private int ignitedCount = 0;
+
+    //Open cells with at least one burning neighbour (SPARSE mode), with a bitset marking which cells are in the list
+    private int[] frontier = new int[64];
+    private int frontierSize = 0;
+    private long[] inFrontier = new long[0];
+
+    //Row-major bit masks of burning and open cells (BITBOARD mode), each row starts on a new word
+    private long[] fireBits = new long[0];
+    private long[] openBits = new long[0];
+    private int rowWords = 0;
+    private final long[] skip = new long[5];         //candidates with k burning neighbours left to pass before the next one ignites
+
+    //Frontier or masks as built for the last maze passed to reset()
+    private boolean hasInitialState = false;
+    private long initialFingerprint;
+    private int initialDim;
+    private int[] initialFrontier = new int[0];
+    private int initialFrontierSize = 0;
+    private long[] initialInFrontier = new long[0];
+    private long[] initialFireBits = new long[0];
+    private long[] initialOpenBits = new long[0];
+
+    public FireSimulator(SplittableRandom rand){
+        this(rand, DENSE);
+    }
+
+    public FireSimulator(SplittableRandom rand, int mode){
+        if(mode != DENSE && mode != SPARSE && mode != BITBOARD) throw new IllegalArgumentException("Unknown fire propagation mode: " + mode);
+        this.rand = rand;
+        this.mode = mode;
+    }
+
+    //Starts a new simulation that draws from the stream passed instead of the one the simulator was using
+    public void reset(MazeGrid maze, double q, SplittableRandom rand){
+        this.rand = rand;
+        reset(maze, q);
+    }
+
+    //Starts a new simulation of the maze passed with flammability q, the maze itself is not modified
+    public void reset(MazeGrid maze, double q){
+        if(current == null || current.getDim() != maze.getDim() || current instanceof MappedMazeGrid != maze instanceof MappedMazeGrid){
+            if(current != null){
+                current.close();
+                next.close();
+            }
+            current = maze.copy();
+            next = maze.copy();
+        }else{
+            current.copyFrom(maze);
+            next.copyFrom(maze);
+        }
+        dim = maze.getDim();
+        for(int k=0; k < spread.length; k++){
+            spread[k] = 1 - Math.pow(1 - q, k);
+            logMiss[k] = Math.log1p(-spread[k]);
+        }
+        ignitedCount = 0;
+        if(mode == DENSE) return;
+        if(hasInitialState && initialDim == dim && initialFingerprint == maze.fingerprint()){
+            restoreInitialState();
+        }else{
+            if(mode == SPARSE) buildFrontier();
+            if(mode == BITBOARD) buildMasks();
+            saveInitialState(maze.fingerprint());
+        }
+        for(int k=1; k < skip.length; k++) skip[k] = drawSkip(k);
+    }
+
+    private void saveInitialState(long fingerprint){
+        if(mode == SPARSE){
+            initialFrontier = Arrays.copyOf(frontier, frontierSize);
+            initialFrontierSize = frontierSize;
+            initialInFrontier = Arrays.copyOf(inFrontier, (dim * dim + 63) >>> 6);
+        }else{
+            int words = dim * rowWords;
+            initialFireBits = Arrays.copyOf(fireBits, words);
+            initialOpenBits = Arrays.copyOf(openBits, words);
+        }
+        initialFingerprint = fingerprint;
+        initialDim = dim;
+        hasInitialState = true;
+    }
+
+    private void restoreInitialState(){
+        if(mode == SPARSE){
+            if(frontier.length < initialFrontierSize) frontier = new int[initialFrontier.length * 2];
+            System.arraycopy(initialFrontier, 0, frontier, 0, initialFrontierSize);
+            frontierSize = initialFrontierSize;
+            System.arraycopy(initialInFrontier, 0, inFrontier, 0, initialInFrontier.length);
+        }else{
+            System.arraycopy(initialFireBits, 0, fireBits, 0, initialFireBits.length);
+            System.arraycopy(initialOpenBits, 0, openBits, 0, initialOpenBits.length);
+        }
+    }
+
+    //Current state of the fire, only valid until the next call to step() or reset()
+    public MazeGrid getMaze(){
+        return current;
+    }
+
+    //Copy of the current state that stays valid after the simulation moves on, close it once done if the maze is a MappedMazeGrid
+    public MazeGrid snapshot(){
+        return current.copy();
+    }
+
+    //False once the fire can no longer spread (no open cell touches it), only tracked in SPARSE mode, the other modes always return true
+    public boolean isSpreading(){
+        return mode != SPARSE || frontierSize > 0;
+    }
+
+    //Number of cells that caught fire in the last step
+    public int getIgnitedCount(){
+        return ignitedCount;
+    }
+
+    //Cell index (x * dim + y) of the i-th cell that caught fire in the last step
+    public int getIgnited(int i){
+        return ignited[i];
+    }
+
+    //Advances the fire by one step and returns the new state (see getMaze())
+    public MazeGrid step(){
+        //The next grid is one step behind, bring it up to date with the cells that ignited last step
+        for(int i=0; i < ignitedCount; i++){
+            next.setCell(ignited[i], 2);
+        }
+        ignitedCount = 0;
+
+        if(mode == SPARSE){
+            rollFrontier();
+        }else if(mode == BITBOARD){
+            rollMasks();
+        }else{
+            rollAll();
+        }
+        for(int i=0; i < ignitedCount; i++){
+            next.setCell(ignited[i], 2);
+        }
+        MazeGrid swap = current;
+        current = next;
+        next = swap;
+        if(mode == SPARSE) updateFrontier();
+        if(mode == BITBOARD) updateMasks();
+        return current;
+    }
+
+//------------------------------ DENSE ------------------------------
+    private void rollAll(){
+        MazeGrid maze = current;
+        for(int x=0; x < dim; x++){
+            int row = x * dim;
+            for(int y=0; y < dim; y++){
+                int cell = row + y;
+                int value = maze.getCell(cell);
+                if(value == 1 || value == 2) continue;
+                int k = 0;
+                if(x > 0 && maze.getCell(cell - dim) == 2) k++;
+                if(x < dim - 1 && maze.getCell(cell + dim) == 2) k++;
+                if(y > 0 && maze.getCell(cell - 1) == 2) k++;
+                if(y < dim - 1 && maze.getCell(cell + 1) == 2) k++;
+                if(k > 0 && rand.nextDouble() <= spread[k]) addIgnited(cell);
+            }
+        }
+    }
+
+//------------------------------ SPARSE ------------------------------
+    //One pass over the maze at reset() to find the open cells touching the fire
+    private void buildFrontier(){
+        int cells = dim * dim;
+        int words = (cells + 63) >>> 6;
+        if(inFrontier.length < words){
+            inFrontier = new long[words];
+        }else{
+            Arrays.fill(inFrontier, 0, words, 0L);
+        }
+        frontierSize = 0;
+        for(int cell=0; cell < cells; cell++){
+            if(current.getCell(cell) == 2) addNeighboursToFrontier(cell);
+        }
+    }
+
+    private void rollFrontier(){
+        MazeGrid maze = current;
+        for(int i=0; i < frontierSize; i++){
+            int cell = frontier[i];
+            int x = cell / dim;
+            int y = cell - x * dim;
+            int k = 0;
+            if(x > 0 && maze.getCell(cell - dim) == 2) k++;
+            if(x < dim - 1 && maze.getCell(cell + dim) == 2) k++;
+            if(y > 0 && maze.getCell(cell - 1) == 2) k++;
+            if(y < dim - 1 && maze.getCell(cell + 1) == 2) k++;
+            if(skip[k] == 0){
+                addIgnited(cell);
+                skip[k] = drawSkip(k);
+            }else{
+                skip[k]--;
+            }
+        }
+    }
+
+    //Drops the cells that just ignited from the frontier and adds their open neighbours that were not in it yet
+    private void updateFrontier(){
+        int size = 0;
+        for(int i=0; i < frontierSize; i++){
+            int cell = frontier[i];
+            if(current.getCell(cell) == 2){
+                inFrontier[cell >>> 6] &= ~(1L << cell);
+            }else{
+                frontier[size++] = cell;
+            }
+        }
+        frontierSize = size;
+        for(int i=0; i < ignitedCount; i++){
+            addNeighboursToFrontier(ignited[i]);
+        }
+    }
+
+    private void addNeighboursToFrontier(int cell){
+        int x = cell / dim;
+        int y = cell - x * dim;
+        if(x > 0) addToFrontier(cell - dim);
+        if(x < dim - 1) addToFrontier(cell + dim);
+        if(y > 0) addToFrontier(cell - 1);
+        if(y < dim - 1) addToFrontier(cell + 1);
+    }
+
+    private void addToFrontier(int cell){
+        if((inFrontier[cell >>> 6] & (1L << cell)) != 0) return;
+        int value = current.getCell(cell);
+        if(value == 1 || value == 2) return;
+        inFrontier[cell >>> 6] |= 1L << cell;
+        if(frontierSize == frontier.length) frontier = Arrays.copyOf(frontier, frontierSize * 2);
+        frontier[frontierSize++] = cell;
+    }
+
+    private void addIgnited(int cell){
+        if(ignitedCount == ignited.length) ignited = Arrays.copyOf(ignited, ignitedCount * 2);
+        ignited[ignitedCount++] = cell;
+    }
+
+//------------------------------ BITBOARD ------------------------------
+    private void buildMasks(){
+        rowWords = (dim + 63) >>> 6;
+        int words = dim * rowWords;
+        if(fireBits.length < words){
+            fireBits = new long[words];
+            openBits = new long[words];
+        }else{
+            Arrays.fill(fireBits, 0, words, 0L);
+            Arrays.fill(openBits, 0, words, 0L);
+        }
+        for(int x=0; x < dim; x++){
+            for(int y=0; y < dim; y++){
+                int value = current.getCell(x * dim + y);
+                int word = x * rowWords + (y >>> 6);
+                if(value == 2){
+                    fireBits[word] |= 1L << y;
+                }else if(value != 1){
+                    openBits[word] |= 1L << y;
+                }
+            }
+        }
+    }
+
+    private void rollMasks(){
+        for(int x=0; x < dim; x++){
+            int base = x * rowWords;
+            for(int w=0; w < rowWords; w++){
+                long open = openBits[base + w];
+                if(open == 0) continue;
+                long fire = fireBits[base + w];
+                //Burning neighbour masks: bit y of each is set if that neighbour of cell y is on fire
+                long up = (x > 0) ? fireBits[base - rowWords + w] : 0L;
+                long down = (x < dim - 1) ? fireBits[base + rowWords + w] : 0L;
+                long left = (fire << 1) | ((w > 0) ? fireBits[base + w - 1] >>> 63 : 0L);
+                long right = (fire >>> 1) | ((w < rowWords - 1) ? fireBits[base + w + 1] << 63 : 0L);
+                if((open & (up | down | left | right)) == 0) continue;
+                //Bit-sliced sum of the four masks: k = ones + 2 * twos + 4 * fours for every cell of the word at once
+                long sumUpDown = up ^ down;
+                long carryUpDown = up & down;
+                long sumLeftRight = left ^ right;
+                long carryLeftRight = left & right;
+                long ones = sumUpDown ^ sumLeftRight;
+                long carry = sumUpDown & sumLeftRight;
+                long twos = carryUpDown ^ carryLeftRight ^ carry;
+                long fours = carryUpDown & carryLeftRight;
+                int rowStart = x * dim + (w << 6);
+                rollClass(open & ones & ~twos, 1, rowStart);
+                rollClass(open & ~ones & twos, 2, rowStart);
+                rollClass(open & ones & twos, 3, rowStart);
+                rollClass(open & fours, 4, rowStart);
+            }
+        }
+    }
+
+    //Passes the candidates of one word that have k burning neighbours through the countdown for k, igniting the ones it lands on
+    private void rollClass(long candidates, int k, int rowStart){
+        int count = Long.bitCount(candidates);
+        while(count > 0){
+            if(skip[k] >= count){
+                skip[k] -= count;
+                return;
+            }
+            for(long n = skip[k]; n > 0; n--) candidates &= candidates - 1;
+            addIgnited(rowStart + Long.numberOfTrailingZeros(candidates));
+            candidates &= candidates - 1;
+            count -= (int) skip[k] + 1;
+            skip[k] = drawSkip(k);
+        }
+    }
+
+    //Number of failures before the next success of independent trials with probability spread[k], Geometric by inversion
+    private long drawSkip(int k){
+        double p = spread[k];
+        if(p >= 1) return 0;
+        if(p <= 0) return Long.MAX_VALUE;
+        double u = 1 - rand.nextDouble();  //in (0, 1] so the log is finite
+        double n = Math.floor(Math.log(u) / logMiss[k]);
+        return (n >= Long.MAX_VALUE) ? Long.MAX_VALUE : (long) n;
+    }
+
+    private void updateMasks(){
+        for(int i=0; i < ignitedCount; i++){
+            int cell = ignited[i];
+            int x = cell / dim;
+            int y = cell - x * dim;
+            int word = x * rowWords + (y >>> 6);
+            fireBits[word] |= 1L << y;
+            openBits[word] &= ~(1L << y);
+        }
+    }
+
+}
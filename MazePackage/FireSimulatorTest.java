@@ -0,0 +1,87 @@
+package MazePackage;
+
+//Checks that the SPARSE and BITBOARD propagation modes of FireSimulator spread the fire like DENSE. They draw their random numbers
+//differently, so fires only match exactly for q = 1; for other q the burned cell counts and the probability that each cell burns
+//after a fixed number of steps must agree statistically. Seeds are fixed, so the outcome is the same on every run
+//Run with: java MazePackage.FireSimulatorTest, it throws AssertionError on the first failure
+public class FireSimulatorTest {
+
+    private static final long SEED = 2021;
+    private static final int DIM = 40;
+    private static final int STEPS = 30;
+    private static final int TRIALS = 2000;
+    private static final double MAX_Z = 5;  //largest z-score accepted, well above what 1600 cells of matching modes produce
+
+    public static void main(String[] args){
+        MazeGrid maze = new MazeManager(RandomStreams.forMaze(SEED, 0)).generateMazeOfFire(DIM, 0.2);
+        sameFireWhenCertain(maze, FireSimulator.SPARSE);
+        sameFireWhenCertain(maze, FireSimulator.BITBOARD);
+        for(double q : new double[]{0.1, 0.3, 0.7}){
+            Burned dense = burn(maze, q, FireSimulator.DENSE);
+            matches(dense, burn(maze, q, FireSimulator.SPARSE), "SPARSE", q);
+            matches(dense, burn(maze, q, FireSimulator.BITBOARD), "BITBOARD", q);
+        }
+        System.out.println("FireSimulatorTest passed");
+    }
+
+    //With q = 1 the spread is deterministic, so every step of the mode must equal the same step of DENSE
+    private static void sameFireWhenCertain(MazeGrid maze, int mode){
+        FireSimulator dense = new FireSimulator(RandomStreams.forTrial(SEED, 0, 1.0, 0), FireSimulator.DENSE);
+        FireSimulator other = new FireSimulator(RandomStreams.forTrial(SEED, 0, 1.0, 1), mode);
+        dense.reset(maze, 1.0);
+        other.reset(maze, 1.0);
+        for(int step=1; step <= STEPS; step++){
+            if(dense.step().fingerprint() != other.step().fingerprint())
+                throw new AssertionError("Mode " + mode + " differs from DENSE at q=1 after " + step + " steps");
+        }
+    }
+
+    //Burned cell count of every trial and number of trials each cell was on fire in after STEPS steps
+    private static Burned burn(MazeGrid maze, double q, int mode){
+        Burned burned = new Burned();
+        FireSimulator fire = new FireSimulator(RandomStreams.forTrial(SEED, mode, q, 0), mode);
+        for(int trial=0; trial < TRIALS; trial++){
+            fire.reset(maze, q);
+            MazeGrid state = fire.getMaze();
+            for(int step=0; step < STEPS; step++){
+                state = fire.step();
+            }
+            int count = 0;
+            for(int cell=0; cell < DIM * DIM; cell++){
+                if(state.getCell(cell) == 2){
+                    burned.perCell[cell]++;
+                    count++;
+                }
+            }
+            burned.sum += count;
+            burned.sumSquares += (double) count * count;
+        }
+        return burned;
+    }
+
+    private static void matches(Burned dense, Burned other, String mode, double q){
+        double meanDense = dense.sum / TRIALS;
+        double meanOther = other.sum / TRIALS;
+        double varDense = dense.sumSquares / TRIALS - meanDense * meanDense;
+        double varOther = other.sumSquares / TRIALS - meanOther * meanOther;
+        double error = Math.sqrt((varDense + varOther) / TRIALS);
+        if(error > 0 && Math.abs(meanDense - meanOther) / error > MAX_Z)
+            throw new AssertionError(mode + " burns " + meanOther + " cells on average against " + meanDense + " for DENSE at q=" + q);
+        for(int cell=0; cell < DIM * DIM; cell++){
+            double pooled = (dense.perCell[cell] + other.perCell[cell]) / (2.0 * TRIALS);
+            if(pooled == 0 || pooled == 1) continue;  //both modes agree on every trial
+            double cellError = Math.sqrt(pooled * (1 - pooled) * 2.0 / TRIALS);
+            double difference = (dense.perCell[cell] - other.perCell[cell]) / (double) TRIALS;
+            if(Math.abs(difference) / cellError > MAX_Z)
+                throw new AssertionError(mode + " burns cell " + cell + " with probability " + (other.perCell[cell] / (double) TRIALS)
+                        + " against " + (dense.perCell[cell] / (double) TRIALS) + " for DENSE at q=" + q);
+        }
+    }
+
+    private static final class Burned {
+        private final int[] perCell = new int[DIM * DIM];
+        private double sum = 0;
+        private double sumSquares = 0;
+    }
+
+}
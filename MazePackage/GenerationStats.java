@@ -0,0 +1,86 @@
+package MazePackage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Counts, for each maze dimension and obstacle probability p, how many fire mazes were generated and how many candidates were thrown
+//away on the way (no path from start to goal, or the fire cannot reach the start), which is the real cost of producing a valid maze
+//Not thread safe, each MazeManager keeps its own; merge() combines the counts of several managers
+public class GenerationStats {
+
+    private final Map<Key, long[]> counts = new LinkedHashMap<>();  //{accepted, rejected} per (dim, p), in first seen order
+
+    //Records one generated maze that took 'rejected' discarded candidates
+    void record(int dim, double p, long rejected){
+        long[] entry = counts.computeIfAbsent(new Key(dim, p), k -> new long[2]);
+        entry[0]++;
+        entry[1] += rejected;
+    }
+
+    //Adds the counts of another instance to this one
+    public void merge(GenerationStats other){
+        for(Map.Entry<Key, long[]> e : other.counts.entrySet()){
+            long[] entry = counts.computeIfAbsent(e.getKey(), k -> new long[2]);
+            entry[0] += e.getValue()[0];
+            entry[1] += e.getValue()[1];
+        }
+    }
+
+    public long getAccepted(int dim, double p){
+        long[] entry = counts.get(new Key(dim, p));
+        return (entry == null) ? 0 : entry[0];
+    }
+
+    public long getRejected(int dim, double p){
+        long[] entry = counts.get(new Key(dim, p));
+        return (entry == null) ? 0 : entry[1];
+    }
+
+    //Fraction of all candidate mazes for (dim, p) that were rejected, 0 if none were generated
+    public double rejectionRate(int dim, double p){
+        long accepted = getAccepted(dim, p);
+        long rejected = getRejected(dim, p);
+        return (accepted + rejected == 0) ? 0 : rejected / (double) (accepted + rejected);
+    }
+
+    public void clear(){
+        counts.clear();
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder sb = new StringBuilder("GenerationStats[");
+        String separator = "";
+        for(Map.Entry<Key, long[]> e : counts.entrySet()){
+            Key key = e.getKey();
+            sb.append(separator).append("dim=").append(key.dim).append(" p=").append(key.p)
+              .append(": accepted=").append(e.getValue()[0]).append(", rejected=").append(e.getValue()[1])
+              .append(String.format(" (%.1f%%)", 100 * rejectionRate(key.dim, key.p)));
+            separator = "; ";
+        }
+        return sb.append("]").toString();
+    }
+
+    private static final class Key {
+        private final int dim;
+        private final double p;
+
+        Key(int dim, double p){
+            this.dim = dim;
+            this.p = p;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return dim == k.dim && Double.compare(p, k.p) == 0;
+        }
+
+        @Override
+        public int hashCode(){
+            return 31 * dim + Double.hashCode(p);
+        }
+    }
+
+}
@@ -0,0 +1,488 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//Allocation-free search engine used by MazeManager's DFS, BFS, bidirectional BFS, Manhattan A* and jump point searches
+//Cells are encoded as int indexes (x * dim + y), visited cells are kept in a bitset, the fringe is a flat int array used as a
+//queue (BFS) or stack (DFS) and the path is kept as an int parent array, so a search never creates Points until the path is traced
+//Buffers are sized for the largest maze seen and reused by every later search, so one instance must not be shared between threads
+public class GridSearch {
+
+    private int capacity = 0;
+    private long[] visited = new long[0];
+    private int[] fringe = new int[0];
+    private int[] parent = new int[0];
+    private int[] gScore = new int[0];
+
+    //Second set of buffers for the goal side of the bidirectional search (allocated the first time it is used)
+    private int backCapacity = 0;
+    private long[] visitedBack = new long[0];
+    private int[] fringeBack = new int[0];
+    private int[] parentBack = new int[0];
+    private int[] distBack = new int[0];
+    private int meetForward = -1;
+    private int meetBackward = -1;
+
+    //Direction each jump point was reached from in the jump point search (UP, DOWN, LEFT, RIGHT or NONE for the start)
+    private byte[] arrival = new byte[0];
+    private static final byte UP = 0, DOWN = 1, LEFT = 2, RIGHT = 3, NONE = 4;
+
+    private final CellHeap heap = new CellHeap();  //Open list used by A* and jump point search
+
+    //Buffers of reachable(), kept apart from the ones above so it never allocates them
+    private long[] reachVisited = new long[0];
+    private long[] reachPath = new long[1];  //direction of each step of the current path, 2 bits per step
+
+    private int pointsExplored = 0;
+    private int pointsExpanded = 0;
+
+    //Number of cells added to the fringe (excluding the start) by the last DFS/BFS, or cells expanded by the last A*
+    public int getPointsExplored(){
+        return pointsExplored;
+    }
+
+    //Number of cells taken off the fringe and expanded (excluding start and goal) by the last BFS, A* or jump point search,
+    //the measure to compare searches by since BFS discovers many cells it never expands
+    public int getPointsExpanded(){
+        return pointsExpanded;
+    }
+
+    //Depth-First Search from start to goal, returns true if goal can be reached
+    public boolean dfs(MazeGrid maze, int start, int goal){
+        int dim = maze.getDim();
+        reset(dim);
+        int top = 0;
+        fringe[top++] = start;
+        markVisited(start);
+        while(top > 0){
+            int curr = fringe[--top];
+            if(curr == goal) return true;
+            int x = curr / dim;
+            int y = curr - x * dim;
+            //Same neighbour order as MazeManager: up, down, left, right
+            if(x > 0 && tryVisit(maze, curr - dim, curr)) fringe[top++] = curr - dim;
+            if(x < dim - 1 && tryVisit(maze, curr + dim, curr)) fringe[top++] = curr + dim;
+            if(y > 0 && tryVisit(maze, curr - 1, curr)) fringe[top++] = curr - 1;
+            if(y < dim - 1 && tryVisit(maze, curr + 1, curr)) fringe[top++] = curr + 1;
+        }
+        return false;
+    }
+
+    //Breadth-First Search from start to goal, returns goal if it is reached within maxSteps steps, -1 otherwise
+    //Use tracePath() afterwards to get the minimal path found
+    public int bfs(MazeGrid maze, int start, int goal, int maxSteps){
+        int dim = maze.getDim();
+        reset(dim);
+        int head = 0;
+        int tail = 0;
+        fringe[tail++] = start;
+        markVisited(start);
+        parent[start] = start;
+        int depth = 0;
+        int levelEnd = tail;
+        while(head < tail){
+            if(head == levelEnd){
+                depth++;
+                if(depth > maxSteps) return -1;
+                levelEnd = tail;
+            }
+            int curr = fringe[head++];
+            if(curr == goal) return goal;
+            if(curr != start) pointsExpanded++;
+            int x = curr / dim;
+            int y = curr - x * dim;
+            if(x > 0 && tryVisit(maze, curr - dim, curr)) fringe[tail++] = curr - dim;
+            if(x < dim - 1 && tryVisit(maze, curr + dim, curr)) fringe[tail++] = curr + dim;
+            if(y > 0 && tryVisit(maze, curr - 1, curr)) fringe[tail++] = curr - 1;
+            if(y < dim - 1 && tryVisit(maze, curr + 1, curr)) fringe[tail++] = curr + 1;
+        }
+        return -1;
+    }
+
+    //Breadth-First Search with no limit on the number of steps
+    public int bfs(MazeGrid maze, int start, int goal){
+        return bfs(maze, start, goal, Integer.MAX_VALUE);
+    }
+
+    //Depth-First Search from start to goal that keeps only its own visited bitset and the direction of every step of the current path
+    //(2 bits each), so it needs at most 3 bits per cell instead of the int fringe and parent arrays of dfs(), less than the maze itself
+    //Used to rule out unreachable goals before IDA*, which would otherwise search the whole start region again in every round
+    public boolean reachable(MazeGrid maze, int start, int goal){
+        int dim = maze.getDim();
+        int words = (dim * dim + 63) >>> 6;
+        if(reachVisited.length < words) reachVisited = new long[words];
+        else Arrays.fill(reachVisited, 0, words, 0L);
+        reachVisited[start >>> 6] |= 1L << start;
+        int curr = start;
+        int depth = 0;
+        byte dir = UP;
+        while(curr != goal){
+            if(dir <= RIGHT){
+                int next = step(curr, dir, dim);
+                if(next >= 0 && (reachVisited[next >>> 6] & (1L << next)) == 0 && isOpenCell(maze, next)){
+                    reachVisited[next >>> 6] |= 1L << next;
+                    if((depth >>> 5) == reachPath.length) reachPath = Arrays.copyOf(reachPath, reachPath.length * 2);
+                    reachPath[depth >>> 5] = (reachPath[depth >>> 5] & ~(3L << (2 * depth))) | ((long) dir << (2 * depth));
+                    depth++;
+                    curr = next;
+                    dir = UP;
+                }else{
+                    dir++;
+                }
+                continue;
+            }
+            if(depth == 0) return false;
+            depth--;
+            byte back = (byte) ((reachPath[depth >>> 5] >>> (2 * depth)) & 3);
+            curr = step(curr, opposite(back), dim);
+            dir = (byte) (back + 1);
+        }
+        return true;
+    }
+
+    //A* search from start to goal using f = g + Manhattan distance, returns goal if reached, -1 otherwise
+    //Manhattan distance is admissible and consistent on a 4-connected unit cost grid, so the path found is minimal and every cell
+    //is expanded at most once; the best g per cell is kept so a cell is only pushed again when a shorter route to it is found
+    //Ties on f are broken toward the higher g (the cell closer to the goal), getPointsExplored() returns the number of cells expanded besides start
+    public int aStar(MazeGrid maze, int start, int goal){
+        int dim = maze.getDim();
+        reset(dim);
+        Arrays.fill(gScore, 0, dim * dim, Integer.MAX_VALUE);
+        heap.clear();
+        int goalX = goal / dim;
+        int goalY = goal - goalX * dim;
+        gScore[start] = 0;
+        parent[start] = start;
+        heapPush(start, 0, manhattan(start, dim, goalX, goalY));
+        while(!heap.isEmpty()){
+            int curr = heap.pop();
+            if(isVisited(curr)) continue;   //stale entry, cell was already expanded with a smaller g
+            markVisited(curr);
+            if(curr == goal) return goal;
+            if(curr != start){
+                pointsExplored++;
+                pointsExpanded++;
+            }
+            int x = curr / dim;
+            int y = curr - x * dim;
+            int g = gScore[curr] + 1;
+            if(x > 0) relax(maze, curr, curr - dim, g, dim, goalX, goalY);
+            if(x < dim - 1) relax(maze, curr, curr + dim, g, dim, goalX, goalY);
+            if(y > 0) relax(maze, curr, curr - 1, g, dim, goalX, goalY);
+            if(y < dim - 1) relax(maze, curr, curr + 1, g, dim, goalX, goalY);
+        }
+        return -1;
+    }
+
+    //aStar() helper that records a shorter route to an open neighbour and pushes it onto the heap
+    private void relax(MazeGrid maze, int curr, int next, int g, int dim, int goalX, int goalY){
+        if(isVisited(next) || g >= gScore[next]) return;
+        int value = maze.getCell(next);
+        if(value == 1 || value == 2) return;
+        gScore[next] = g;
+        parent[next] = curr;
+        heapPush(next, g, g + manhattan(next, dim, goalX, goalY));
+    }
+
+    private static int manhattan(int cell, int dim, int goalX, int goalY){
+        int x = cell / dim;
+        int y = cell - x * dim;
+        return Math.abs(goalX - x) + Math.abs(goalY - y);
+    }
+
+    //Key orders by f first and then by larger g, both fit in 31 bits since they are bounded by the number of cells
+    private void heapPush(int cell, int g, int f){
+        heap.push(cell, ((long) f << 32) | (Integer.MAX_VALUE - g));
+    }
+
+    //Jump Point Search from start to goal for a 4-connected uniform cost grid, returns goal if reached, -1 otherwise
+    //Runs the same f = g + Manhattan open list as aStar() but only jump points are pushed: horizontal scans stop at the goal or at a cell
+    //with a forced neighbour (a free cell above/below whose counterpart one step back is blocked) and vertical scans stop where a horizontal
+    //scan would find a jump point, so the many symmetric paths through open areas are never expanded
+    //getPointsExplored() returns the number of jump points expanded besides start, use traceJumpPath() afterwards to get the full path
+    public int jumpPointSearch(MazeGrid maze, int start, int goal){
+        int dim = maze.getDim();
+        reset(dim);
+        Arrays.fill(gScore, 0, dim * dim, Integer.MAX_VALUE);
+        heap.clear();
+        int goalValue = maze.getCell(goal);
+        if(start != goal && (goalValue == 1 || goalValue == 2)) return -1;
+        int goalX = goal / dim;
+        int goalY = goal - goalX * dim;
+        gScore[start] = 0;
+        parent[start] = start;
+        arrival[start] = NONE;
+        heapPush(start, 0, manhattan(start, dim, goalX, goalY));
+        while(!heap.isEmpty()){
+            int curr = heap.pop();
+            if(isVisited(curr)) continue;
+            markVisited(curr);
+            if(curr == goal) return goal;
+            if(curr != start){
+                pointsExplored++;
+                pointsExpanded++;
+            }
+            byte dir = arrival[curr];
+            for(byte next = UP; next <= RIGHT; next++){
+                if(dir != NONE && !isSuccessorDirection(maze, curr, dir, next, dim)) continue;
+                int jumpPoint = jump(maze, curr, next, goal, dim);
+                if(jumpPoint < 0 || isVisited(jumpPoint)) continue;
+                int g = gScore[curr] + distance(curr, jumpPoint, dim);
+                if(g >= gScore[jumpPoint]) continue;
+                gScore[jumpPoint] = g;
+                parent[jumpPoint] = curr;
+                arrival[jumpPoint] = next;
+                heapPush(jumpPoint, g, g + manhattan(jumpPoint, dim, goalX, goalY));
+            }
+        }
+        return -1;
+    }
+
+    //jumpPointSearch() helper that prunes directions: a cell reached vertically continues vertically or turns left/right (its vertical
+    //scan stopped because a horizontal scan found something), a cell reached horizontally continues or turns only toward forced neighbours
+    private boolean isSuccessorDirection(MazeGrid maze, int cell, byte dir, byte next, int dim){
+        if(next == dir) return true;
+        if(next == opposite(dir)) return false;
+        if(dir == UP || dir == DOWN) return true;
+        return isForced(maze, cell, dir, next, dim);
+    }
+
+    //True if the neighbour of cell in direction perp (UP or DOWN) is free but the same neighbour of the cell we came from is blocked
+    private boolean isForced(MazeGrid maze, int cell, byte dir, byte perp, int dim){
+        int side = step(cell, perp, dim);
+        if(side < 0 || !isOpenCell(maze, side)) return false;
+        int behind = step(cell, opposite(dir), dim);
+        return !isOpenCell(maze, step(behind, perp, dim));
+    }
+
+    //Scans from cell in direction dir and returns the first jump point found, -1 if the scan runs into a wall or obstacle first
+    private int jump(MazeGrid maze, int cell, byte dir, int goal, int dim){
+        int curr = cell;
+        while(true){
+            curr = step(curr, dir, dim);
+            if(curr < 0 || !isOpenCell(maze, curr)) return -1;
+            if(curr == goal) return curr;
+            if(dir == LEFT || dir == RIGHT){
+                if(isForced(maze, curr, dir, UP, dim) || isForced(maze, curr, dir, DOWN, dim)) return curr;
+            }else{
+                if(jump(maze, curr, LEFT, goal, dim) >= 0 || jump(maze, curr, RIGHT, goal, dim) >= 0) return curr;
+            }
+        }
+    }
+
+    //Index of the neighbour of cell in direction dir, -1 if it is outside the maze
+    private static int step(int cell, byte dir, int dim){
+        int x = cell / dim;
+        int y = cell - x * dim;
+        switch(dir){
+            case UP: return (x > 0) ? cell - dim : -1;
+            case DOWN: return (x < dim - 1) ? cell + dim : -1;
+            case LEFT: return (y > 0) ? cell - 1 : -1;
+            default: return (y < dim - 1) ? cell + 1 : -1;
+        }
+    }
+
+    private static byte opposite(byte dir){
+        return (byte) (dir ^ 1);
+    }
+
+    private static boolean isOpenCell(MazeGrid maze, int cell){
+        int value = maze.getCell(cell);
+        return value != 1 && value != 2;
+    }
+
+    private static int distance(int a, int b, int dim){
+        return Math.abs(a / dim - b / dim) + Math.abs(a % dim - b % dim);
+    }
+
+    //Backtraces the jump points of the last jump point search and fills in the straight runs between them, returns list of Points from start to goal
+    public ArrayList<Point> traceJumpPath(int goal, int dim){
+        ArrayList<Point> jumpPoints = tracePath(goal, dim);
+        ArrayList<Point> path = new ArrayList<>();
+        Point prev = jumpPoints.get(0);
+        path.add(new Point(null, prev.x, prev.y));
+        for(int i=1; i < jumpPoints.size(); i++){
+            Point next = jumpPoints.get(i);
+            int dx = Integer.signum(next.x - prev.x);
+            int dy = Integer.signum(next.y - prev.y);
+            int x = prev.x, y = prev.y;
+            while(x != next.x || y != next.y){
+                x += dx;
+                y += dy;
+                path.add(new Point(path.get(path.size() - 1), x, y));
+            }
+            prev = next;
+        }
+        return path;
+    }
+
+    //Bidirectional Breadth-First Search that expands a whole level from whichever of the start and goal fronts is smaller until they meet
+    //If shortest is false it returns as soon as the fronts touch (reachability only), otherwise it finishes the level where they first touch
+    //and keeps the shortest joined path, which is then minimal; use traceBidirectionalPath() afterwards to get the path
+    //getPointsExplored() returns the number of cells added to either fringe
+    public boolean bidirectionalBFS(MazeGrid maze, int start, int goal, boolean shortest){
+        int dim = maze.getDim();
+        reset(dim);
+        resetBack(dim);
+        meetForward = -1;
+        meetBackward = -1;
+        if(start == goal){
+            meetForward = start;
+            meetBackward = goal;
+            parent[start] = start;
+            parentBack[goal] = goal;
+            return true;
+        }
+        //The goal has to be stepped on, the start does not (searches may start from a cell on fire)
+        int goalValue = maze.getCell(goal);
+        if(goalValue == 1 || goalValue == 2) return false;
+
+        int head = 0, tail = 0, headBack = 0, tailBack = 0;
+        fringe[tail++] = start;
+        markVisited(start);
+        parent[start] = start;
+        gScore[start] = 0;
+        fringeBack[tailBack++] = goal;
+        visitedBack[goal >>> 6] |= 1L << goal;
+        parentBack[goal] = goal;
+        distBack[goal] = 0;
+
+        int best = Integer.MAX_VALUE;
+        while(head < tail && headBack < tailBack){
+            boolean expandForward = (tail - head) <= (tailBack - headBack);
+            int levelEnd = expandForward ? tail : tailBack;
+            while(expandForward ? head < levelEnd : headBack < levelEnd){
+                int curr = expandForward ? fringe[head++] : fringeBack[headBack++];
+                int x = curr / dim;
+                int y = curr - x * dim;
+                for(int dir = 0; dir < 4; dir++){
+                    int next;
+                    if(dir == 0){ if(x == 0) continue; next = curr - dim; }
+                    else if(dir == 1){ if(x == dim - 1) continue; next = curr + dim; }
+                    else if(dir == 2){ if(y == 0) continue; next = curr - 1; }
+                    else{ if(y == dim - 1) continue; next = curr + 1; }
+
+                    boolean seenHere = expandForward ? isVisited(next) : (visitedBack[next >>> 6] & (1L << next)) != 0;
+                    if(seenHere) continue;
+                    boolean seenOther = expandForward ? (visitedBack[next >>> 6] & (1L << next)) != 0 : isVisited(next);
+                    if(seenOther){
+                        //Fronts touch across the edge curr -> next
+                        int forwardCell = expandForward ? curr : next;
+                        int backwardCell = expandForward ? next : curr;
+                        int length = gScore[forwardCell] + 1 + distBack[backwardCell];
+                        if(length < best){
+                            best = length;
+                            meetForward = forwardCell;
+                            meetBackward = backwardCell;
+                        }
+                        if(!shortest) return true;
+                        continue;
+                    }
+                    int value = maze.getCell(next);
+                    if(value == 1 || value == 2) continue;
+                    pointsExplored++;
+                    if(expandForward){
+                        markVisited(next);
+                        parent[next] = curr;
+                        gScore[next] = gScore[curr] + 1;
+                        fringe[tail++] = next;
+                    }else{
+                        visitedBack[next >>> 6] |= 1L << next;
+                        parentBack[next] = curr;
+                        distBack[next] = distBack[curr] + 1;
+                        fringeBack[tailBack++] = next;
+                    }
+                }
+            }
+            if(best != Integer.MAX_VALUE) return true;
+        }
+        return false;
+    }
+
+    //Joins the start side and goal side halves of the last bidirectional search, returns list of Points from start to goal
+    public ArrayList<Point> traceBidirectionalPath(int dim){
+        ArrayList<Point> path = tracePath(meetForward, dim);
+        Point prev = path.get(path.size() - 1);
+        for(int curr = meetBackward; ; curr = parentBack[curr]){
+            if(curr != meetForward){
+                Point p = new Point(prev, curr / dim, curr % dim);
+                path.add(p);
+                prev = p;
+            }
+            if(parentBack[curr] == curr) break;
+        }
+        return path;
+    }
+
+    //Backtraces the parent array of the last BFS or A* search from goal back to its start, returns list of Points representing path taken
+    public ArrayList<Point> tracePath(int goal, int dim){
+        int length = 1;
+        for(int curr = goal; parent[curr] != curr; curr = parent[curr]) length++;
+        int[] cells = new int[length];
+        int curr = goal;
+        for(int i = length - 1; i >= 0; i--){
+            cells[i] = curr;
+            curr = parent[curr];
+        }
+        ArrayList<Point> path = new ArrayList<>(length);
+        Point prev = null;
+        for(int cell : cells){
+            Point p = new Point(prev, cell / dim, cell % dim);
+            path.add(p);
+            prev = p;
+        }
+        return path;
+    }
+
+    //Marks the neighbour visited and records its parent if it is open and not yet visited
+    private boolean tryVisit(MazeGrid maze, int next, int curr){
+        if(isVisited(next)) return false;
+        int value = maze.getCell(next);
+        if(value == 1 || value == 2) return false;
+        markVisited(next);
+        parent[next] = curr;
+        pointsExplored++;
+        return true;
+    }
+
+    private boolean isVisited(int index){
+        return (visited[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void markVisited(int index){
+        visited[index >>> 6] |= 1L << index;
+    }
+
+    //Same as reset() for the goal side buffers of the bidirectional search
+    private void resetBack(int dim){
+        int cells = dim * dim;
+        if(cells > backCapacity){
+            backCapacity = cells;
+            visitedBack = new long[(cells + 63) >>> 6];
+            fringeBack = new int[cells];
+            parentBack = new int[cells];
+            distBack = new int[cells];
+        }else{
+            Arrays.fill(visitedBack, 0, (cells + 63) >>> 6, 0L);
+        }
+    }
+
+    //Grows the buffers if needed and clears the visited bitset for a new search
+    private void reset(int dim){
+        int cells = dim * dim;
+        if(cells > capacity){
+            capacity = cells;
+            visited = new long[(cells + 63) >>> 6];
+            fringe = new int[cells];
+            parent = new int[cells];
+            gScore = new int[cells];
+            arrival = new byte[cells];
+        }else{
+            Arrays.fill(visited, 0, (cells + 63) >>> 6, 0L);
+        }
+        pointsExplored = 0;
+        pointsExpanded = 0;
+    }
+
+}
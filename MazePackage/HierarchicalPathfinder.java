@@ -0,0 +1,345 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//Hierarchical path-finding (HPA*) for answering many path queries on one large maze
+//The maze is split into square clusters. Where two neighbouring clusters share a run of open cells along their border an entrance is
+//placed (in the middle of the run, or at both ends of long runs), giving an abstract node on each side. Distances between the nodes
+//of a cluster are precomputed with Breadth-First Searches restricted to that cluster
+//A query connects start and goal to the nodes of their clusters, runs A* over the small abstract graph and then refines each abstract
+//edge into cells with a search inside a single cluster, so its cost depends on the number of clusters crossed rather than on the grid
+//Paths are close to minimal but not guaranteed minimal, since crossings are restricted to the chosen entrances
+//The pathfinder reads the maze it was built for; after cells change, cellChanged() marks their clusters and only those clusters (and
+//neighbours whose entrances moved) are recomputed before the next query
+public class HierarchicalPathfinder {
+
+    public static final int DEFAULT_CLUSTER_SIZE = 32;
+    private static final int LONG_ENTRANCE = 6;   //runs at least this long get an entrance at each end instead of one in the middle
+
+    private final MazeGrid maze;
+    private final int dim;
+    private final int clusterSize;
+    private final int clustersPerSide;
+
+    private final int[][] clusterNodes;     //cells of the abstract nodes of each cluster, sorted
+    private final int[][] clusterDist;      //k x k distances between the nodes of each cluster, -1 if not connected inside the cluster
+    private final int[] nodeIndex;          //position of a cell in its cluster's node list, -1 if the cell is not a node
+    private final boolean[] dirty;
+    private int[] dirtyList = new int[16];
+    private int dirtyCount = 0;
+
+    //Buffers for searches inside one cluster, indexed by local cell index
+    private final int[] localDist;
+    private final int[] localParent;
+    private final int[] localQueue;
+    private final int[] goalDist;
+    private int[] scratch = new int[64];
+
+    //Abstract search state, stamped so a query never has to clear arrays the size of the maze
+    private final int[] absG;
+    private final int[] absParent;
+    private final int[] absStamp;
+    private int stamp = 0;
+    private final CellHeap heap = new CellHeap();
+    private int nodesExpanded = 0;
+
+    public HierarchicalPathfinder(MazeGrid maze){
+        this(maze, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathfinder(MazeGrid maze, int clusterSize){
+        if(clusterSize < 2) throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        this.maze = maze;
+        this.dim = maze.getDim();
+        this.clusterSize = clusterSize;
+        this.clustersPerSide = (dim + clusterSize - 1) / clusterSize;
+        int clusters = clustersPerSide * clustersPerSide;
+        int cells = dim * dim;
+        clusterNodes = new int[clusters][];
+        clusterDist = new int[clusters][];
+        nodeIndex = new int[cells];
+        Arrays.fill(nodeIndex, -1);
+        dirty = new boolean[clusters];
+        int local = clusterSize * clusterSize;
+        localDist = new int[local];
+        localParent = new int[local];
+        localQueue = new int[local];
+        goalDist = new int[local];
+        absG = new int[cells];
+        absParent = new int[cells];
+        absStamp = new int[cells];
+        for(int c=0; c < clusters; c++){
+            clusterNodes[c] = new int[0];
+            installNodes(c, collectNodes(c));
+        }
+    }
+
+    public int getClusterSize(){
+        return clusterSize;
+    }
+
+    //Abstract nodes expanded by the last query
+    public int getNodesExpanded(){
+        return nodesExpanded;
+    }
+
+    //Marks the cluster holding cell (x, y) for recomputation, call after the cell changed (e.g. caught fire)
+    public void cellChanged(int x, int y){
+        int c = clusterOf(x * dim + y);
+        if(dirty[c]) return;
+        dirty[c] = true;
+        if(dirtyCount == dirtyList.length) dirtyList = Arrays.copyOf(dirtyList, dirtyCount * 2);
+        dirtyList[dirtyCount++] = c;
+    }
+
+    //Recomputes the clusters marked by cellChanged(), queries do this on their own
+    public void refresh(){
+        for(int i=0; i < dirtyCount; i++){
+            int c = dirtyList[i];
+            dirty[c] = false;
+            installNodes(c, collectNodes(c));
+            //Entrances on the borders of c are shared with its neighbours, which only need recomputing if theirs moved
+            int cx = c / clustersPerSide;
+            int cy = c % clustersPerSide;
+            if(cx > 0) refreshNeighbour(c - clustersPerSide);
+            if(cx < clustersPerSide - 1) refreshNeighbour(c + clustersPerSide);
+            if(cy > 0) refreshNeighbour(c - 1);
+            if(cy < clustersPerSide - 1) refreshNeighbour(c + 1);
+        }
+        dirtyCount = 0;
+    }
+
+    private void refreshNeighbour(int c){
+        int[] nodes = collectNodes(c);
+        if(!Arrays.equals(nodes, clusterNodes[c])) installNodes(c, nodes);
+    }
+
+    //Returns a path from start to goal as a list of Points, null if goal cannot be reached
+    public ArrayList<Point> findPath(Point startPoint, Point goalPoint){
+        refresh();
+        int start = startPoint.x * dim + startPoint.y;
+        int goal = goalPoint.x * dim + goalPoint.y;
+        nodesExpanded = 0;
+        if(!isOpen(goal)) return null;
+        if(start == goal) return toPoints(new int[]{goal}, 1);
+        int goalCluster = clusterOf(goal);
+        localSearch(goalCluster, goal, goalDist, null);
+
+        stamp++;
+        heap.clear();
+        relax(start, 0, -1, goalPoint);
+        while(!heap.isEmpty()){
+            long key = heap.peekKey();
+            int u = heap.pop();
+            int g = (int) key;
+            if(absG[u] != g) continue;  //stale entry
+            if(u == goal) return refine(start, goal);
+            nodesExpanded++;
+            int c = clusterOf(u);
+            if(u == start){
+                //Start is joined to the nodes of its cluster (and to goal if it shares the cluster) by a search inside the cluster
+                localSearch(c, start, localDist, null);
+                for(int node : clusterNodes[c]){
+                    int d = localDist[localIndex(node)];
+                    if(d >= 0) relax(node, d, u, goalPoint);
+                }
+            }else{
+                int[] nodes = clusterNodes[c];
+                int[] dist = clusterDist[c];
+                int k = nodes.length;
+                int i = nodeIndex[u];
+                for(int j=0; j < k; j++){
+                    int d = dist[i * k + j];
+                    if(d > 0) relax(nodes[j], g + d, u, goalPoint);
+                }
+            }
+            if(c == goalCluster){
+                int d = goalDist[localIndex(u)];
+                if(d >= 0) relax(goal, g + d, u, goalPoint);
+            }
+            if(nodeIndex[u] >= 0){
+                //Entrance edges to the paired node across the border
+                int x = u / dim;
+                int y = u - x * dim;
+                if(x > 0) crossBorder(u, u - dim, g, goalPoint);
+                if(x < dim - 1) crossBorder(u, u + dim, g, goalPoint);
+                if(y > 0) crossBorder(u, u - 1, g, goalPoint);
+                if(y < dim - 1) crossBorder(u, u + 1, g, goalPoint);
+            }
+        }
+        return null;
+    }
+
+//------------------------------ Abstract Search ------------------------------
+    private void crossBorder(int u, int v, int g, Point goal){
+        if(nodeIndex[v] >= 0 && clusterOf(v) != clusterOf(u)) relax(v, g + 1, u, goal);
+    }
+
+    private void relax(int cell, int g, int parent, Point goal){
+        if(absStamp[cell] == stamp && absG[cell] <= g) return;
+        absStamp[cell] = stamp;
+        absG[cell] = g;
+        absParent[cell] = parent;
+        int h = Math.abs(cell / dim - goal.x) + Math.abs(cell % dim - goal.y);
+        heap.push(cell, ((long) (g + h) << 32) | g);
+    }
+
+    //Expands the abstract path into cells, each abstract edge either crosses a border (adjacent cells) or stays inside one cluster
+    private ArrayList<Point> refine(int start, int goal){
+        int count = 0;
+        for(int cell = goal; cell != -1; cell = absParent[cell]) count++;
+        int[] abstractPath = new int[count];
+        for(int cell = goal, i = count - 1; cell != -1; cell = absParent[cell], i--) abstractPath[i] = cell;
+
+        int[] cells = new int[absG[goal] + 1];
+        int length = 0;
+        cells[length++] = start;
+        for(int i=1; i < count; i++){
+            int from = abstractPath[i - 1];
+            int to = abstractPath[i];
+            int c = clusterOf(from);
+            if(c != clusterOf(to)){
+                cells[length++] = to;
+                continue;
+            }
+            localSearch(c, from, localDist, localParent);
+            int steps = localDist[localIndex(to)];
+            int cell = to;
+            for(int j = length + steps - 1; j >= length; j--){
+                cells[j] = cell;
+                cell = localToCell(c, localParent[localIndex(cell)]);
+            }
+            length += steps;
+        }
+        return toPoints(cells, length);
+    }
+
+    private ArrayList<Point> toPoints(int[] cells, int length){
+        ArrayList<Point> path = new ArrayList<>(length);
+        Point prev = null;
+        for(int i=0; i < length; i++){
+            prev = new Point(prev, cells[i] / dim, cells[i] % dim);
+            path.add(prev);
+        }
+        return path;
+    }
+
+//------------------------------ Clusters ------------------------------
+    private int clusterOf(int cell){
+        int x = cell / dim;
+        int y = cell - x * dim;
+        return (x / clusterSize) * clustersPerSide + (y / clusterSize);
+    }
+
+    private int localIndex(int cell){
+        int x = cell / dim;
+        int y = cell - x * dim;
+        return (x % clusterSize) * clusterSize + (y % clusterSize);
+    }
+
+    private int localToCell(int c, int local){
+        int x = (c / clustersPerSide) * clusterSize + local / clusterSize;
+        int y = (c % clustersPerSide) * clusterSize + local % clusterSize;
+        return x * dim + y;
+    }
+
+    private boolean isOpen(int cell){
+        int value = maze.getCell(cell);
+        return value != 1 && value != 2;
+    }
+
+    //Breadth-First Search from source over the open cells of cluster c, fills dist (and parent if not null) by local index, -1 if unreached
+    private void localSearch(int c, int source, int[] dist, int[] parent){
+        int x0 = (c / clustersPerSide) * clusterSize;
+        int y0 = (c % clustersPerSide) * clusterSize;
+        int x1 = Math.min(x0 + clusterSize, dim);
+        int y1 = Math.min(y0 + clusterSize, dim);
+        Arrays.fill(dist, -1);
+        int head = 0;
+        int tail = 0;
+        int sourceLocal = localIndex(source);
+        dist[sourceLocal] = 0;
+        localQueue[tail++] = sourceLocal;
+        while(head < tail){
+            int curr = localQueue[head++];
+            int lx = curr / clusterSize;
+            int ly = curr - lx * clusterSize;
+            int x = x0 + lx;
+            int y = y0 + ly;
+            if(x > x0) tail = localVisit(curr, curr - clusterSize, (x - 1) * dim + y, dist, parent, tail);
+            if(x < x1 - 1) tail = localVisit(curr, curr + clusterSize, (x + 1) * dim + y, dist, parent, tail);
+            if(y > y0) tail = localVisit(curr, curr - 1, x * dim + y - 1, dist, parent, tail);
+            if(y < y1 - 1) tail = localVisit(curr, curr + 1, x * dim + y + 1, dist, parent, tail);
+        }
+    }
+
+    private int localVisit(int curr, int next, int cell, int[] dist, int[] parent, int tail){
+        if(dist[next] >= 0 || !isOpen(cell)) return tail;
+        dist[next] = dist[curr] + 1;
+        if(parent != null) parent[next] = curr;
+        localQueue[tail] = next;
+        return tail + 1;
+    }
+
+    //Entrance cells on the inside of each of the four borders of cluster c, sorted and without duplicates (corners can be on two borders)
+    private int[] collectNodes(int c){
+        int x0 = (c / clustersPerSide) * clusterSize;
+        int y0 = (c % clustersPerSide) * clusterSize;
+        int x1 = Math.min(x0 + clusterSize, dim);
+        int y1 = Math.min(y0 + clusterSize, dim);
+        int count = 0;
+        if(x0 > 0) count = scanBorder(x0 * dim + y0, (x0 - 1) * dim + y0, 1, y1 - y0, count);
+        if(x1 < dim) count = scanBorder((x1 - 1) * dim + y0, x1 * dim + y0, 1, y1 - y0, count);
+        if(y0 > 0) count = scanBorder(x0 * dim + y0, x0 * dim + y0 - 1, dim, x1 - x0, count);
+        if(y1 < dim) count = scanBorder(x0 * dim + y1 - 1, x0 * dim + y1, dim, x1 - x0, count);
+        Arrays.sort(scratch, 0, count);
+        int unique = 0;
+        for(int i=0; i < count; i++){
+            if(unique == 0 || scratch[unique - 1] != scratch[i]) scratch[unique++] = scratch[i];
+        }
+        return Arrays.copyOf(scratch, unique);
+    }
+
+    //Walks a border of 'length' cells, inside and outside being the first pair of facing cells and step the offset to the next pair
+    //Each run of pairs that are both open becomes one entrance in its middle, or two at its ends when the run is long
+    //Both clusters sharing a border see the same runs, so the entrances they place always face each other
+    private int scanBorder(int inside, int outside, int step, int length, int count){
+        int runStart = -1;
+        for(int i=0; i <= length; i++){
+            boolean open = i < length && isOpen(inside + i * step) && isOpen(outside + i * step);
+            if(open){
+                if(runStart < 0) runStart = i;
+                continue;
+            }
+            if(runStart < 0) continue;
+            int runLength = i - runStart;
+            if(count + 2 > scratch.length) scratch = Arrays.copyOf(scratch, scratch.length * 2);
+            if(runLength >= LONG_ENTRANCE){
+                scratch[count++] = inside + runStart * step;
+                scratch[count++] = inside + (i - 1) * step;
+            }else{
+                scratch[count++] = inside + (runStart + (runLength - 1) / 2) * step;
+            }
+            runStart = -1;
+        }
+        return count;
+    }
+
+    //Replaces the nodes of cluster c and recomputes the distances between them
+    private void installNodes(int c, int[] nodes){
+        for(int cell : clusterNodes[c]) nodeIndex[cell] = -1;
+        int k = nodes.length;
+        for(int i=0; i < k; i++) nodeIndex[nodes[i]] = i;
+        int[] dist = new int[k * k];
+        for(int i=0; i < k; i++){
+            localSearch(c, nodes[i], localDist, null);
+            for(int j=0; j < k; j++){
+                dist[i * k + j] = localDist[localIndex(nodes[j])];
+            }
+        }
+        clusterNodes[c] = nodes;
+        clusterDist[c] = dist;
+    }
+
+}
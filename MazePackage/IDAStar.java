@@ -0,0 +1,199 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//Iterative-deepening A* (IDA*) with the Manhattan distance heuristic, the memory-bounded search mode of mazeAStar()
+//Runs repeated depth-first searches bounded by f = g + h, raising the bound to the smallest f that exceeded it each round
+//Nothing is stored per explored cell: the only state is the current path (an explicit stack of cells and the next direction to try)
+//and a hash set of the cells on that path used to avoid cycles, so memory grows with the path length rather than the explored area
+//A fixed-size, direct-mapped transposition table remembers the lowest g each cell was reached with in the current round, so a cell
+//reached again at the same or a higher cost is not searched twice; collisions simply overwrite, so its size caps memory, not correctness
+//The price is CPU, cells are expanded again in every round
+public class IDAStar {
+
+    public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int EMPTY = -1;
+
+    private int[] stackCells = new int[256];
+    private byte[] stackDirs = new byte[256];   //next direction to try at each depth: 0 up, 1 down, 2 left, 3 right, 4 done
+    private int[] onPath = new int[512];        //open-addressing hash set of the cells on the current path
+    private int onPathSize = 0;
+    private final int[] tableCells;            //transposition table: cell, lowest g and the round it was stored in
+    private final int[] tableG;
+    private final int[] tableRound;
+    private int round = 0;
+    private int nextBound;                      //smallest f that exceeded the bound in the last round
+    private long pointsExplored = 0;
+
+    public IDAStar(){
+        this(DEFAULT_TABLE_SIZE);
+    }
+
+    //tableSize is rounded up to a power of two, memory use is 12 bytes per entry plus the current path
+    public IDAStar(int tableSize){
+        if(tableSize < 1) throw new IllegalArgumentException("Table size must be positive: " + tableSize);
+        int size = Math.max(2, Integer.highestOneBit(tableSize));
+        if(size < tableSize) size <<= 1;
+        tableCells = new int[size];
+        tableG = new int[size];
+        tableRound = new int[size];
+        Arrays.fill(onPath, EMPTY);
+    }
+
+    //Number of expansions over all rounds of the last search
+    public long getPointsExplored(){
+        return pointsExplored;
+    }
+
+    //Returns a minimal path from start to goal as a list of Points, null if goal cannot be reached
+    public ArrayList<Point> search(MazeGrid maze, Point startPoint, Point goalPoint){
+        int dim = maze.getDim();
+        int start = startPoint.x * dim + startPoint.y;
+        int goal = goalPoint.x * dim + goalPoint.y;
+        pointsExplored = 0;
+        int bound = manhattan(start, dim, goalPoint);
+        while(true){
+            int depth = boundedSearch(maze, start, goal, bound, goalPoint);
+            if(depth >= 0) return tracePath(depth, dim);
+            if(nextBound == INF) return null;
+            bound = nextBound;
+        }
+    }
+
+    //One depth-first round limited to f <= bound, returns the depth of goal on the stack if found, -1 otherwise (nextBound is then set)
+    private int boundedSearch(MazeGrid maze, int start, int goal, int bound, Point goalPoint){
+        int dim = maze.getDim();
+        nextBound = INF;
+        round++;
+        clearPath();
+        int depth = 0;
+        stackCells[0] = start;
+        stackDirs[0] = 0;
+        addToPath(start);
+        while(depth >= 0){
+            int curr = stackCells[depth];
+            if(curr == goal) return depth;
+            int dir = stackDirs[depth];
+            if(dir == 4){
+                removeFromPath(curr);
+                depth--;
+                continue;
+            }
+            stackDirs[depth]++;
+            if(dir == 0) pointsExplored++;
+            int next = neighbour(curr, dir, dim);
+            if(next < 0 || containsOnPath(next)) continue;
+            int value = maze.getCell(next);
+            if(value == 1 || value == 2) continue;
+            int f = depth + 1 + manhattan(next, dim, goalPoint);
+            if(f > bound){
+                if(f < nextBound) nextBound = f;
+                continue;
+            }
+            if(!improvesTable(next, depth + 1)) continue;
+            depth++;
+            if(depth == stackCells.length){
+                stackCells = Arrays.copyOf(stackCells, depth * 2);
+                stackDirs = Arrays.copyOf(stackDirs, depth * 2);
+            }
+            stackCells[depth] = next;
+            stackDirs[depth] = 0;
+            addToPath(next);
+        }
+        return -1;
+    }
+
+    //Neighbour of cell in direction dir, -1 if it is outside the maze
+    private int neighbour(int cell, int dir, int dim){
+        int x = cell / dim;
+        int y = cell - x * dim;
+        switch(dir){
+            case 0: return (x > 0) ? cell - dim : -1;
+            case 1: return (x < dim - 1) ? cell + dim : -1;
+            case 2: return (y > 0) ? cell - 1 : -1;
+            default: return (y < dim - 1) ? cell + 1 : -1;
+        }
+    }
+
+    private int manhattan(int cell, int dim, Point goal){
+        return Math.abs(cell / dim - goal.x) + Math.abs(cell % dim - goal.y);
+    }
+
+    private ArrayList<Point> tracePath(int depth, int dim){
+        ArrayList<Point> path = new ArrayList<>(depth + 1);
+        Point prev = null;
+        for(int i=0; i <= depth; i++){
+            prev = new Point(prev, stackCells[i] / dim, stackCells[i] % dim, i, 0);
+            path.add(prev);
+        }
+        return path;
+    }
+
+//------------------------------ Transposition Table ------------------------------
+    //Returns false if cell was already reached this round with a cost of at most g, otherwise records g for it and returns true
+    private boolean improvesTable(int cell, int g){
+        int i = (cell * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(tableCells.length));
+        if(tableRound[i] == round && tableCells[i] == cell && tableG[i] <= g) return false;
+        tableRound[i] = round;
+        tableCells[i] = cell;
+        tableG[i] = g;
+        return true;
+    }
+
+//------------------------------ On-Path Set ------------------------------
+    private void clearPath(){
+        Arrays.fill(onPath, EMPTY);
+        onPathSize = 0;
+    }
+
+    private int slot(int cell){
+        return (cell * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(onPath.length));
+    }
+
+    private boolean containsOnPath(int cell){
+        int mask = onPath.length - 1;
+        for(int i = slot(cell); onPath[i] != EMPTY; i = (i + 1) & mask){
+            if(onPath[i] == cell) return true;
+        }
+        return false;
+    }
+
+    private void addToPath(int cell){
+        if(2 * (onPathSize + 1) > onPath.length){
+            int[] old = onPath;
+            onPath = new int[old.length * 2];
+            Arrays.fill(onPath, EMPTY);
+            onPathSize = 0;
+            for(int c : old){
+                if(c != EMPTY) addToPath(c);
+            }
+        }
+        int mask = onPath.length - 1;
+        int i = slot(cell);
+        while(onPath[i] != EMPTY) i = (i + 1) & mask;
+        onPath[i] = cell;
+        onPathSize++;
+    }
+
+    //Linear probing removal that shifts later entries of the same probe run back, so no tombstones are left behind
+    private void removeFromPath(int cell){
+        int mask = onPath.length - 1;
+        int i = slot(cell);
+        while(onPath[i] != cell) i = (i + 1) & mask;
+        onPath[i] = EMPTY;
+        onPathSize--;
+        for(int j = (i + 1) & mask; onPath[j] != EMPTY; j = (j + 1) & mask){
+            int home = slot(onPath[j]);
+            //Entry at j can move into the hole at i if its home slot is not in the cyclic range (i, j]
+            if(((j - home) & mask) >= ((j - i) & mask)){
+                onPath[i] = onPath[j];
+                onPath[j] = EMPTY;
+                i = j;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+//Checks the memory-bounded mode of mazeAStar() against BFS on fixed seeds: when goal can be reached the IDA* path must be as short
+//as the BFS path, and when it cannot (including the 100x100 maze where IDA* used to search the start region for minutes) it must
+//return null right away. Run with: java MazePackage.IDAStarTest, it throws AssertionError on the first failure
+public class IDAStarTest {
+
+    private static final long TIME_LIMIT_MILLIS = 5000;
+
+    public static void main(String[] args){
+        long begin = System.currentTimeMillis();
+        int reachable = 0;
+        int unreachable = 0;
+        for(int i=0; i < 40; i++){
+            int dim = (i % 2 == 0) ? 60 : 100;
+            double p = (i % 4 < 2) ? 0.25 : 0.3;
+            if(matchesBFS(new MazeManager(new SplittableRandom(i * 7919L + dim)), dim, p)) reachable++;
+            else unreachable++;
+        }
+        if(!matchesBFS(new MazeManager(new SplittableRandom(5 * 7919L + 100)), 100, 0.3)) unreachable++;
+        if(reachable == 0 || unreachable == 0)
+            throw new AssertionError("Seeds must cover both cases: " + reachable + " reachable, " + unreachable + " unreachable");
+        long elapsed = System.currentTimeMillis() - begin;
+        if(elapsed > TIME_LIMIT_MILLIS) throw new AssertionError("IDA* searches took " + elapsed + " ms");
+        System.out.println("IDAStarTest passed (" + reachable + " reachable, " + unreachable + " unreachable, " + elapsed + " ms)");
+    }
+
+    //Returns whether goal was reachable, after checking IDA* agrees with BFS
+    private static boolean matchesBFS(MazeManager manager, int dim, double p){
+        MazeGrid maze = manager.generateMaze(dim, p);
+        ArrayList<Point> bfs = manager.mazeBFS(maze);
+        ArrayList<Point> ida = manager.mazeAStar(maze, new Point(null, 0, 0), new Point(null, dim - 1, dim - 1), true);
+        if((bfs == null) != (ida == null))
+            throw new AssertionError("IDA* " + (ida == null ? "found no path" : "found a path") + " where BFS did not, dim=" + dim + " p=" + p);
+        if(bfs != null && bfs.size() != ida.size())
+            throw new AssertionError("IDA* path has " + ida.size() + " points, BFS path " + bfs.size() + ", dim=" + dim + " p=" + p);
+        return bfs != null;
+    }
+
+}
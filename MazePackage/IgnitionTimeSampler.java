@@ -0,0 +1,95 @@
+package MazePackage;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+//Samples the step at which every cell catches fire in one event-driven pass, instead of ticking the whole grid step by step
+//Under the spread rule a cell with k burning neighbours ignites with probability 1 - (1 - q)^k, which is the chance that at least
+//one of k independent neighbours spreads to it that step. So each burning neighbour n reaches cell c after its own delay, drawn from
+//Geometric(q) on {1, 2, ...}, and c ignites at the minimum over its neighbours of (ignition time of n + delay n -> c). That is a
+//shortest path problem with random edge weights: Dijkstra from all burning cells, drawing an edge's delay only when it is relaxed
+//Each sample is distributed exactly like the ignition times of repeated FireSimulator steps, and afterwards isBurning(x, y, t) is a
+//single array read for any t
+//Arrays are reused by later samples, so one instance must not be shared between threads
+public class IgnitionTimeSampler {
+
+    public static final int NEVER = Integer.MAX_VALUE;
+
+    private final SplittableRandom rand;
+    private final CellHeap heap = new CellHeap();
+    private int dim = 0;
+    private int[] ignition = new int[0];
+    private double logMiss;  //log(1 - q), for drawing the delays by inversion
+
+    public IgnitionTimeSampler(SplittableRandom rand){
+        this.rand = rand;
+    }
+
+    //Samples the ignition time of every cell of the maze with flammability q, the maze itself is not modified
+    public void sample(MazeGrid maze, double q){
+        sample(maze, q, NEVER - 1);
+    }
+
+    //Same as sample(maze, q) but stops at the horizon, cells that would ignite after it are left as NEVER
+    public void sample(MazeGrid maze, double q, int horizon){
+        dim = maze.getDim();
+        int cells = dim * dim;
+        if(ignition.length < cells) ignition = new int[cells];
+        Arrays.fill(ignition, 0, cells, NEVER);
+        logMiss = Math.log1p(-q);
+        heap.clear();
+        for(int cell=0; cell < cells; cell++){
+            if(maze.getCell(cell) == 2){
+                ignition[cell] = 0;
+                heap.push(cell, 0);
+            }
+        }
+        if(q <= 0) return;
+        while(!heap.isEmpty()){
+            long time = heap.peekKey();
+            int cell = heap.pop();
+            if(time != ignition[cell]) continue;  //stale entry, the cell was reached earlier through another neighbour
+            int x = cell / dim;
+            int y = cell - x * dim;
+            if(x > 0) relax(maze, cell - dim, time, horizon);
+            if(x < dim - 1) relax(maze, cell + dim, time, horizon);
+            if(y > 0) relax(maze, cell - 1, time, horizon);
+            if(y < dim - 1) relax(maze, cell + 1, time, horizon);
+        }
+    }
+
+    private void relax(MazeGrid maze, int next, long time, int horizon){
+        if(ignition[next] <= time + 1) return;  //already burning, or no delay could make it earlier
+        int value = maze.getCell(next);
+        if(value == 1 || value == 2) return;
+        long arrival = time + drawDelay();
+        if(arrival < ignition[next] && arrival <= horizon){
+            ignition[next] = (int) arrival;
+            heap.push(next, arrival);
+        }
+    }
+
+    //Steps until a burning neighbour spreads to a cell, Geometric(q) on {1, 2, ...} by inversion
+    private long drawDelay(){
+        if(logMiss == Double.NEGATIVE_INFINITY) return 1;  //q = 1
+        double u = 1 - rand.nextDouble();  //in (0, 1] so the log is finite
+        double n = Math.floor(Math.log(u) / logMiss);
+        return (n >= NEVER) ? NEVER : 1 + (long) n;
+    }
+
+    //Step at which cell (x, y) catches fire in the last sample, 0 if it was already burning and NEVER if the fire does not reach it
+    public int ignitionTime(int x, int y){
+        return ignition[x * dim + y];
+    }
+
+    //True if cell (x, y) is on fire after t steps in the last sample
+    public boolean isBurning(int x, int y, int t){
+        return ignition[x * dim + y] <= t;
+    }
+
+    //Ignition time of every cell (index x * dim + y) in the last sample, only valid until the next call to sample()
+    public int[] getIgnitionTimes(){
+        return ignition;
+    }
+
+}
@@ -0,0 +1,171 @@
+package MazePackage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//MazeGrid whose cells live in a memory-mapped file instead of on the heap, so mazes larger than the heap can be generated and searched
+//Uses the same 4 bit per cell layout as MazeGrid: cell index i is stored in byte i / 2, low nibble for even i and high nibble for odd i
+//A dim x dim maze needs dim * dim / 2 bytes, which always fits in a single mapping since cell indexes are ints (dim at most 46340)
+//Only the grid is off-heap: the searches and the fire simulator still keep O(cells) working arrays on the heap
+//Copies live in temporary files that are deleted when the copy is closed, close every copy (and every snapshot) once done with it
+//Windows refuses to delete a file while it is still mapped, and the mapping is only released by garbage collection, so there the
+//temporary file usually outlives close() and is only deleted when the JVM exits
+public class MappedMazeGrid extends MazeGrid {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Path file;
+    private final boolean temporary;
+    private boolean closed = false;
+
+    private MappedMazeGrid(int dim, FileChannel channel, MappedByteBuffer buffer, Path file, boolean temporary){
+        super(dim, null);
+        this.channel = channel;
+        this.buffer = buffer;
+        this.file = file;
+        this.temporary = temporary;
+    }
+
+    //Number of bytes needed to hold a dim x dim grid
+    static long bytesFor(int dim){
+        return ((long) dim * dim + 1) / 2;
+    }
+
+    //Creates (or truncates) the file passed and maps a dim x dim maze of free cells onto it
+    public static MappedMazeGrid create(Path file, int dim) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return map(channel, file, dim, 0, false);
+    }
+
+    //Maps an existing maze file, the body starts at 'offset' bytes into the file (0 for files made by create())
+    public static MappedMazeGrid open(Path file, int dim, long offset) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if(channel.size() < offset + bytesFor(dim)){
+            channel.close();
+            throw new IOException("Maze file " + file + " is too small for dimension " + dim);
+        }
+        MappedMazeGrid grid = map(channel, file, dim, offset, false);
+        grid.recomputeFingerprint();
+        return grid;
+    }
+
+    //Creates a maze in a temporary file that is deleted when the grid is closed (or when the JVM exits)
+    public static MappedMazeGrid createTemp(int dim) throws IOException {
+        Path file = Files.createTempFile("maze", ".grid");
+        file.toFile().deleteOnExit();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return map(channel, file, dim, 0, true);
+    }
+
+    private static MappedMazeGrid map(FileChannel channel, Path file, int dim, long offset, boolean temporary) throws IOException {
+        try{
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, bytesFor(dim));
+            return new MappedMazeGrid(dim, channel, buffer, file, temporary);
+        }catch(IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getFile(){
+        return file;
+    }
+
+    @Override
+    int getCell(int index){
+        int b = buffer.get(index >>> 1);
+        return ((index & 1) == 0) ? (b & 0xF) : ((b >>> 4) & 0xF);
+    }
+
+    @Override
+    void setCell(int index, int value){
+        int offset = index >>> 1;
+        int b = buffer.get(offset);
+        int old;
+        value &= 0xF;
+        if((index & 1) == 0){
+            old = b & 0xF;
+            b = (b & 0xF0) | value;
+        }else{
+            old = (b >>> 4) & 0xF;
+            b = (b & 0x0F) | (value << 4);
+        }
+        if(old == value) return;
+        buffer.put(offset, (byte) b);
+        fingerprint ^= cellHash(index, old) ^ cellHash(index, value);
+    }
+
+    @Override
+    public void clear(){
+        byte[] zeros = new byte[8192];
+        ByteBuffer view = buffer.duplicate();
+        view.clear();
+        while(view.hasRemaining()){
+            view.put(zeros, 0, Math.min(zeros.length, view.remaining()));
+        }
+        fingerprint = 0L;
+    }
+
+    //Duplicates the grid into a new temporary mapped file so the copy stays off-heap too, the caller must close the copy
+    @Override
+    public MappedMazeGrid copy(){
+        try{
+            MappedMazeGrid copy = createTemp(dim);
+            copy.copyFrom(this);
+            return copy;
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void copyFrom(MazeGrid other){
+        if(other.dim != dim) throw new IllegalArgumentException("Maze dimensions do not match: " + other.dim + " vs " + dim);
+        if(other instanceof MappedMazeGrid){
+            ByteBuffer src = ((MappedMazeGrid) other).buffer.duplicate();
+            src.clear();
+            ByteBuffer dst = buffer.duplicate();
+            dst.clear();
+            dst.put(src);
+            fingerprint = other.fingerprint;
+            return;
+        }
+        int totalCells = dim * dim;
+        for(int i=0; i < totalCells; i++){
+            setCell(i, other.getCell(i));
+        }
+    }
+
+    //Writes any changes in the mapping back to the file
+    public void flush(){
+        buffer.force();
+    }
+
+    //Closes the file and deletes it if it is temporary, the mapping itself is released once the grid is garbage collected
+    //A temporary file that cannot be deleted yet (still mapped, on Windows) is left to the deleteOnExit() set by createTemp()
+    //Closing twice does nothing
+    @Override
+    public void close(){
+        if(closed) return;
+        closed = true;
+        try{
+            channel.close();
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+        if(!temporary) return;
+        try{
+            Files.deleteIfExists(file);
+        }catch(IOException e){
+            //Still mapped, deleted on exit instead
+        }
+    }
+
+}
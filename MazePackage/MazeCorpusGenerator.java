@@ -0,0 +1,139 @@
+package MazePackage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//Generates a corpus of mazes on several worker threads and writes each maze to its own file (see MazeFile) as soon as it is generated,
+//so at most one maze per worker is in memory whatever the size of the corpus
+//Maze i is drawn from its own stream RandomStreams.forMaze(seed, i), whose seed is stored in the file header: the corpus is the same
+//for any number of workers, and any maze of it can be regenerated alone with generateMazeOfFire(grid, p, new SplittableRandom(seed))
+//Each worker owns its MazeManager, grid and MazeFileWriter; workers only share the index of the next maze and the LongAdder
+//counters used to report throughput while the corpus is generated
+public class MazeCorpusGenerator {
+
+    private static final long REPORT_INTERVAL_MILLIS = 1000;
+
+    private final int dim;
+    private final double p;
+    private final long seed;
+    private final boolean fire;
+    private final int workers;
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    //Fire mazes on one worker per core
+    public MazeCorpusGenerator(int dim, double p, long seed){
+        this(dim, p, seed, true, Runtime.getRuntime().availableProcessors());
+    }
+
+    //fire selects generateMazeOfFire() (validated, with a fire) or generateMaze() (no fire, not validated)
+    public MazeCorpusGenerator(int dim, double p, long seed, boolean fire, int workers){
+        if(workers < 1) throw new IllegalArgumentException("Number of workers must be positive: " + workers);
+        this.dim = dim;
+        this.p = p;
+        this.seed = seed;
+        this.fire = fire;
+        this.workers = workers;
+    }
+
+    //Generates 'count' mazes into the directory passed (created if needed), printing the throughput every second while it runs
+    //Returns the accepted and rejected counts of all workers
+    public GenerationStats generate(Path directory, int count) throws IOException {
+        Files.createDirectories(directory);
+        generated.reset();
+        rejected.reset();
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<GenerationStats>> results = new ArrayList<>(workers);
+        long begin = System.nanoTime();
+        try{
+            for(int w=0; w < workers; w++){
+                Callable<GenerationStats> worker = () -> generateShare(directory, count, next);
+                results.add(pool.submit(worker));
+            }
+            pool.shutdown();
+            while(!pool.awaitTermination(REPORT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)){
+                report(count, begin);
+            }
+            GenerationStats stats = new GenerationStats();
+            for(Future<GenerationStats> result : results){
+                stats.merge(result.get());
+            }
+            report(count, begin);
+            return stats;
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating maze corpus", e);
+        }catch(ExecutionException e){
+            if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException("Maze generation failed", e.getCause());
+        }finally{
+            pool.shutdownNow();
+        }
+    }
+
+    //One worker: takes maze indexes until the corpus is complete, writing each maze before generating the next one into the same grid
+    private GenerationStats generateShare(Path directory, int count, AtomicInteger next) throws IOException {
+        MazeManager manager = new MazeManager(new SplittableRandom(seed));
+        MazeGrid grid = new MazeGrid(dim);
+        MazeFileWriter writer = new MazeFileWriter();
+        GenerationStats stats = manager.getGenerationStats();
+        for(int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()){
+            long mazeSeed = RandomStreams.mazeSeed(seed, i);
+            Point fireOrigin = null;
+            if(fire){
+                long rejectedBefore = stats.getRejected(dim, p);
+                manager.generateMazeOfFire(grid, p, new SplittableRandom(mazeSeed));
+                rejected.add(stats.getRejected(dim, p) - rejectedBefore);
+                fireOrigin = manager.getLastFireOrigin();
+            }else{
+                manager.generateMaze(grid, p, new SplittableRandom(mazeSeed));
+            }
+            writer.write(directory.resolve(fileName(i)), new MazeFile(grid, mazeSeed, p, fireOrigin));
+            generated.increment();
+        }
+        return stats;
+    }
+
+    private void report(int count, long begin){
+        double seconds = Math.max(1e-9, (System.nanoTime() - begin) / 1e9);
+        long mazes = generated.sum();
+        long rejections = rejected.sum();
+        System.out.println(String.format("Generated %d/%d mazes in %.1fs: %.1f mazes/sec, %.1f rejections/sec",
+                mazes, count, seconds, mazes / seconds, rejections / seconds));
+    }
+
+    //File name of maze i of the corpus
+    public static String fileName(int i){
+        return String.format("maze-%06d.maze", i);
+    }
+
+    //Usage: MazeCorpusGenerator <directory> <count> <dim> <p> [seed] [workers]
+    public static void main(String[] args) throws IOException {
+        if(args.length < 4){
+            System.out.println("Usage: MazeCorpusGenerator <directory> <count> <dim> <p> [seed] [workers]");
+            return;
+        }
+        long seed = (args.length > 4) ? Long.parseLong(args[4]) : System.nanoTime();
+        int workers = (args.length > 5) ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        MazeCorpusGenerator generator = new MazeCorpusGenerator(Integer.parseInt(args[2]), Double.parseDouble(args[3]), seed, true, workers);
+        GenerationStats stats = generator.generate(Paths.get(args[0]), Integer.parseInt(args[1]));
+        System.out.println("Seed: " + seed);
+        System.out.println(stats);
+    }
+
+}
@@ -7,10 +7,14 @@ import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
 
 public class MazeDriver {
 
     static MazeManager manager = new MazeManager();
+    static final long ANALYSIS_SEED = 2021;  //Experiment seed of the analyses, every maze and fire they use is derived from it
+    static int analysisThreads = Runtime.getRuntime().availableProcessors();  //Platform threads the analyses run their trials on
+    static boolean analysisVirtualThreads = false;  //Run the trials on virtual threads instead (when the JVM supports them)
 
 //------------------------------ Driver ------------------------------
     public static void main(String[] args){
@@ -21,8 +25,8 @@ public class MazeDriver {
 
         System.out.println("Welcome to the Maze of Fire");
         try {
-            int maze[][] = null;
-            System.out.println("Please enter 'o' for maze of obstacles, 'f' for maze of fire, 'd' for DFS analysis graph, 'b' for BFS vs A* analysis graph, 's' for Strategy Analysis");
+            MazeGrid maze = null;
+            System.out.println("Please enter 'o' for maze of obstacles, 'f' for maze of fire, 'd' for DFS analysis graph, 'b' for BFS vs A* analysis graph, 's' for Strategy Analysis, 'j' for Jump Point Search analysis");
             command = userInput.next().charAt(0);
             if(command == 'o') {
                 while (!quit) {
@@ -60,9 +64,10 @@ public class MazeDriver {
                                     System.out.println("Steps taken: " + (path.size() - 1));
                                 }
                             }
-                            int copy[][] = manager.copyMaze(maze);
-                            manager.pathResult(path, copy);
-                            manager.printMaze(copy);
+                            try (MazeGrid copy = manager.copyMaze(maze)) {
+                                manager.pathResult(path, copy);
+                                manager.printMaze(copy);
+                            }
                         } else {
                             System.out.println("(BFS)Reachable: false");
                         }
@@ -98,9 +103,10 @@ public class MazeDriver {
                                     System.out.println("Steps taken: " + (path.size() - 1));
                                 }
                             }
-                            int copy[][] = manager.copyMaze(maze);
-                            manager.pathResult(path, copy);
-                            manager.printMaze(copy);
+                            try (MazeGrid copy = manager.copyMaze(maze)) {
+                                manager.pathResult(path, copy);
+                                manager.printMaze(copy);
+                            }
                         } else {
                             System.out.println("(A*)Reachable: false");
                         }
@@ -128,18 +134,21 @@ public class MazeDriver {
                         System.out.println("Please enter a probability 'q' to grow the fire");
                         q = userInput.nextDouble();
                     }
-                    System.out.println("Please enter '1' to run Strategy 1, '2' to run Strategy 2, '3' to run Strategy 3, " +
+                    System.out.println("Please enter '1' to run Strategy 1, '2' to run Strategy 2, '3' to run Strategy 3, '4' to run Strategy 4, " +
                             "'c' to change fire spread probability, 'q' to exit or 'n' for new maze");
                     command = userInput.next().charAt(0);
                     time = true;
                     if(command == '1'){
-                        int [][] result = manager.strategy1(maze, q);
+                        MazeGrid result = manager.strategy1(maze, q);
                         manager.printMaze(result);
                     }else if(command == '2'){
-                        int result[][] = manager.strategy2(maze, q);
+                        MazeGrid result = manager.strategy2(maze, q);
                         manager.printMaze(result);
                     }else if(command == '3'){
-                        int [][] result = manager.strategy3(maze, q);
+                        MazeGrid result = manager.strategy3(maze, q);
+                        manager.printMaze(result);
+                    }else if(command == '4'){
+                        MazeGrid result = manager.strategy4(maze, q);
                         manager.printMaze(result);
                     }else if(command == 'n') {
                         time = false;
@@ -153,6 +162,8 @@ public class MazeDriver {
                 generateDFSAnalysis();
             }else if(command == 's'){
                 generateStrategiesAnalysis();
+            }else if(command == 'j'){
+                generateJPSAnalysis();
             }
             else{
                 generateAStarVsBFSAnalysis();
@@ -167,31 +178,33 @@ public class MazeDriver {
 
 //------------------------------ Algorithm Analysis Tests (generates graph upon completion) ------------------------------
     //Generates DFS analysis test
-    //Each test performs 10 DFS searches for each 'obstacle density p' and records the 'probability S can be reached from G'
+    //Each test performs 10 reachability checks for each 'obstacle density p' and records the 'probability S can be reached from G'
     //There are a total of 10 tests for which the average of the 10 results are taken
-    //mazeDFS() is performed a total of 100 times for each 'obstacle density p' in order to get a good average
+    //Reachability is checked a total of 100 times for each 'obstacle density p' in order to get a good average
+    //using the maze's connectivity index, which gives the same answer as mazeDFS() in a single linear pass
     public static void generateDFSAnalysis(){
         int dim = 50;
         Point start = new Point(null, 49, 49);
         Point goal = new Point(null, 0, 0);
+        double[] densities = parameterValues(0.1, 0.91, 0.1);
+
+        //One task per maze: trials 0-99 of each 'obstacle density p' are the 10 mazes of each of the 10 tests
+        ResultTable reached = new ResultTable(10, densities.length);  //reachable mazes per test and p
+        try(ExperimentRunner runner = newRunner()){
+            runner.run(densities.length, 100, (t, trial, rand, taskManager) -> {
+                MazeGrid maze = taskManager.generateMaze(new MazeGrid(dim), densities[t], rand);
+                if (taskManager.connectivityIndex(maze).connected(start, goal)) reached.increment(trial / 10, t);
+            });
+        }
 
         double[] average = new double[9];  //keeps track of results for each test
-        //Loop to perform 10 tests
         for(int test = 0; test < 10; test++) {
             System.out.println("Test " + (test+1));
-            int t = 0;
-            //Loop for each p (0 < p < 1)
-            for (double p = 0.1; p < 0.91; p += 0.1) {
-                double results = 0;
-                //Loop to perform mazeDFS for each p
-                for (int i = 0; i < 10; i++) {
-                    int[][] maze = manager.generateMaze(dim, p);
-                    if (manager.mazeDFS(maze, start, goal)) results += 0.1;
-                }
+            for (int t = 0; t < densities.length; t++) {
+                double results = reached.get(test, t) / 10.0;
                 System.out.println("Probability that S can be reached from G is: " + formatDouble(results)
-                        + ", when obstacle density p is: " + formatDouble(p));
+                        + ", when obstacle density p is: " + formatDouble(densities[t]));
                 average[t] += results;
-                t++;
             }
             System.out.println();
         }
@@ -215,26 +228,40 @@ public class MazeDriver {
 
     //Generates A* vs BFS analysis test
     //Each test performs 10 BFS and A* searches for each 'obstacle density p' and records the 'number of nodes explored by BFS - number of nodes explored by A*'
+    //The same difference is also recorded for the Manhattan distance A* (mazeAStarManhattanPointsExplored) as a second series
     //There are a total of 10 tests for which the average of the 10 results are taken
     //mazeBFS() and mazeAStar() are performed a total of 100 times each for 'obstacle density p' in order to get a good average
     public static void generateAStarVsBFSAnalysis(){
         int dim = 10;
+        double[] densities = parameterValues(0.1, 0.91, 0.1);
+
+        //One task per maze: trials 0-99 of each 'obstacle density p' are the 10 mazes of each of the 10 tests
+        ResultTable difference = new ResultTable(10, densities.length);
+        ResultTable differenceManhattan = new ResultTable(10, densities.length);
+        try(ExperimentRunner runner = newRunner()){
+            runner.run(densities.length, 100, (t, trial, rand, taskManager) -> {
+                MazeGrid maze = taskManager.generateMaze(new MazeGrid(dim), densities[t], rand);
+                int BFSPointsExplored = taskManager.mazeBFSPointsExplored(maze);
+                int AStarPointsExplored = taskManager.mazeAStarPointsExplored(maze);
+                int manhattanPointsExplored = taskManager.mazeAStarManhattanPointsExplored(maze);
+                difference.add(trial / 10, t, BFSPointsExplored - AStarPointsExplored);
+                differenceManhattan.add(trial / 10, t, BFSPointsExplored - manhattanPointsExplored);
+            });
+        }
+
         double[] average = new double[10];
+        double[] averageManhattan = new double[10];
         for(int test = 0; test < 10; test++){
             System.out.println("Test " + (test+1));
-            int t = 0;
-            for(double p = 0.1; p < 0.91; p += 0.1){
-                int results = 0;
-                for(int i=0; i < 10; i++){
-                    int[][] maze = manager.generateMaze(dim, p);
-                    int BFSPointsExplored = manager.mazeBFSPointsExplored(maze);
-                    int AStarPointsExplored = manager.mazeAStarPointsExplored(maze);
-                    results += (BFSPointsExplored - AStarPointsExplored);
-                }
+            for(int t = 0; t < densities.length; t++){
+                int results = (int) difference.get(test, t);
+                int resultsManhattan = (int) differenceManhattan.get(test, t);
                 System.out.println("Average 'number of nodes explored by BFS - number of nodes explored by A*': " + (results/10)
-                        + ", when obstacle density p is: " + formatDouble(p));
+                        + ", when obstacle density p is: " + formatDouble(densities[t]));
+                System.out.println("Average 'number of nodes explored by BFS - number of nodes expanded by Manhattan A*': " + (resultsManhattan/10)
+                        + ", when obstacle density p is: " + formatDouble(densities[t]));
                 average[t] += (results/10);
-                t++;
+                averageManhattan[t] += (resultsManhattan/10);
             }
             System.out.println();
         }
@@ -245,7 +272,10 @@ public class MazeDriver {
         for(int i=0; i < average.length; i++) {
             System.out.println("Average difference between BFS nodes explored - A* nodes explored for 0." + (i+1) + " is: "
                     + average[i]/10);
+            System.out.println("Average difference between BFS nodes explored - Manhattan A* nodes expanded for 0." + (i+1) + " is: "
+                    + averageManhattan[i]/10);
             dfsDataset.addValue(average[i] / 10, "difference", "0." + (i + 1));
+            dfsDataset.addValue(averageManhattan[i] / 10, "difference (Manhattan A*)", "0." + (i + 1));
         }
         GraphGenerator generator = new GraphGenerator("Average Points Explored Difference",
                 "BFS vs A*",
@@ -257,35 +287,93 @@ public class MazeDriver {
         generator.setVisible(true);
     }
 
+    //Generates Jump Point Search vs BFS vs A* analysis test on low density mazes (p <= 0.3) where open areas make BFS and A* explode
+    //For each 'obstacle density p' 10 mazes are searched by mazeBFS(), mazeAStar(), mazeAStarManhattan() and mazeJPS() from (0, 0) to
+    //(dim-1, dim-1) and the average number of nodes expanded and the average execution time of each search are recorded
+    //Every search is run on a few untimed mazes first so the times are not dominated by the JIT compiling the searches. The searches
+    //run one after the other on this thread, since tasks running at the same time would slow each other down and skew the times
+    //dim is kept small because mazeAStar() slows down quadratically with the points it has expanded
+    public static void generateJPSAnalysis(){
+        int dim = 70;
+        int trials = 10;
+        int warmups = 5;
+        String[] densities = {"0.0", "0.1", "0.2", "0.3"};
+        String[] searches = {"BFS", "A*", "Manhattan A*", "JPS"};
+        DefaultCategoryDataset jpsDataset = new DefaultCategoryDataset();
+
+        for(int i=0; i < warmups; i++){
+            searchAndTime(manager.generateMaze(dim, 0.1), new long[searches.length], new long[searches.length]);
+        }
+        for(int t = 0; t < densities.length; t++){
+            double p = t * 0.1;
+            long[] expanded = new long[searches.length];
+            long[] nanos = new long[searches.length];
+            for(int i=0; i < trials; i++){
+                searchAndTime(manager.generateMaze(dim, p), expanded, nanos);
+            }
+            System.out.println("Obstacle density p is: " + densities[t]);
+            for(int k=0; k < searches.length; k++){
+                System.out.println(searches[k] + " average nodes expanded: " + expanded[k] / trials + ", average time: "
+                        + formatDouble(nanos[k] / 1e6 / trials) + " milliseconds");
+                jpsDataset.addValue(expanded[k] / trials, searches[k], densities[t]);
+            }
+            System.out.println();
+        }
+        GraphGenerator generator = new GraphGenerator("Jump Point Search Analysis",
+                "BFS vs A* vs Manhattan A* vs JPS",
+                "average number of nodes expanded",
+                "obstacle density p",
+                jpsDataset);
+        generator.pack();
+        RefineryUtilities.centerFrameOnScreen(generator);
+        generator.setVisible(true);
+    }
+
     //Generate strategy comparison analysis as described in project description
     //This comparison generates 10 different mazes each with different random starting points for fire
     //Each strategy is put to the test against each of the 10 mazes, starting with 'flammability rate' of 0.1 all the way to 0.9
+    //Mazes and fires come from streams derived from ANALYSIS_SEED (see RandomStreams), so the analysis is reproducible, and the four
+    //strategies get equal fire streams for each maze and q so they are compared against the same fires
     public static void generateStrategiesAnalysis(){
         int dim = 30;
-        ArrayList<int[][]> mazes = new ArrayList<>();
+        ArrayList<MazeGrid> mazes = new ArrayList<>();
         for(int i=0;i<10;i++){
-            mazes.add(manager.generateMazeOfFire(dim,0.3));
+            mazes.add(new MazeManager(RandomStreams.forMaze(ANALYSIS_SEED, i)).generateMazeOfFire(dim,0.3));
+        }
+        double[] flammabilities = parameterValues(0.1, 0.91, 0.1);
+
+        //One task per (q, maze), all four strategies of a task face the same fire
+        ResultTable successes = new ResultTable(4, flammabilities.length);  //mazes where each strategy reached the goal, per q
+        try(ExperimentRunner runner = newRunner()){
+            runner.run(flammabilities.length, mazes.size(), (qIndex, i, rand, taskManager) -> {
+                MazeGrid maze = mazes.get(i);
+                double q = flammabilities[qIndex];
+                if(taskManager.strategy1(maze,q,RandomStreams.forTrial(ANALYSIS_SEED,i,q,0)).get(29, 29) == 7) successes.increment(0, qIndex);
+                if(taskManager.strategy2(maze,q,RandomStreams.forTrial(ANALYSIS_SEED,i,q,0)).get(29, 29) == 7) successes.increment(1, qIndex);
+                if(taskManager.strategy3(maze,q,RandomStreams.forTrial(ANALYSIS_SEED,i,q,0)).get(29, 29) == 7) successes.increment(2, qIndex);
+                if(taskManager.strategy4(maze,q,RandomStreams.forTrial(ANALYSIS_SEED,i,q,0)).get(29, 29) == 7) successes.increment(3, qIndex);
+            });
         }
+
         double[] results1 = new double[9];
         double[] results2 = new double[9];
         double[] results3 = new double[9];
-        int qIndex =0;
-
-        for(double q=0.1;q<0.91;q+=0.1){
-            for(int i=0;i<10;i++){
-                int[][] maze = mazes.get(i);
-                if(manager.strategy1(maze,q)[29][29] == 7) results1[qIndex] +=0.1;
-                if(manager.strategy2(maze,q)[29][29] == 7) results2[qIndex] +=0.1;
-                if(manager.strategy3(maze,q)[29][29] == 7) results3[qIndex] +=0.1;
-            }
+        double[] results4 = new double[9];
+        for(int qIndex = 0; qIndex < flammabilities.length; qIndex++){
+            double q = flammabilities[qIndex];
+            results1[qIndex] = successes.get(0, qIndex) / 10.0;
+            results2[qIndex] = successes.get(1, qIndex) / 10.0;
+            results3[qIndex] = successes.get(2, qIndex) / 10.0;
+            results4[qIndex] = successes.get(3, qIndex) / 10.0;
             System.out.println("Average Successes for strategy 1: " + formatDouble(results1[qIndex])
                     + ", when Flammability q is: " + formatDouble(q));
             System.out.println("Average Successes for strategy 2: " + formatDouble(results2[qIndex])
                     + ", when Flammability q is: " + formatDouble(q));
-            System.out.println("Average Successes for strategy 3: " + formatDouble(results2[qIndex])
+            System.out.println("Average Successes for strategy 3: " + formatDouble(results3[qIndex])
+                    + ", when Flammability q is: " + formatDouble(q));
+            System.out.println("Average Successes for strategy 4: " + formatDouble(results4[qIndex])
                     + ", when Flammability q is: " + formatDouble(q));
             System.out.println();
-            qIndex++;
         }
 
         DefaultCategoryDataset stratDataset = new DefaultCategoryDataset();
@@ -294,6 +382,7 @@ public class MazeDriver {
             stratDataset.addValue(formatDouble(results1[i] / 10), "Strategy 1", "0." + (i + 1));
             stratDataset.addValue(formatDouble(results2[i] / 10), "Strategy 2", "0." + (i + 1));
             stratDataset.addValue(formatDouble(results3[i] / 10), "Strategy 3", "0." + (i + 1));
+            stratDataset.addValue(formatDouble(results4[i] / 10), "Strategy 4", "0." + (i + 1));
         }
         GraphGenerator generator = new GraphGenerator("Strategy Success Analysis",
                 "Average Success Rates vs Flammability q",
@@ -307,6 +396,40 @@ public class MazeDriver {
     }
 
 //------------------------------ Utility Methods ------------------------------
+    //generateJPSAnalysis() helper that runs BFS, A*, Manhattan A* and JPS on the maze, in that order, and adds the nodes each one
+    //expanded and the time it took to expanded and nanos
+    private static void searchAndTime(MazeGrid maze, long[] expanded, long[] nanos){
+        long startTime = System.nanoTime();
+        expanded[0] += manager.mazeBFSPointsExpanded(maze);
+        long bfsTime = System.nanoTime();
+        expanded[1] += manager.mazeAStarPointsExpanded(maze);
+        long aStarTime = System.nanoTime();
+        expanded[2] += manager.mazeAStarManhattanPointsExplored(maze);
+        long manhattanTime = System.nanoTime();
+        expanded[3] += manager.mazeJPSPointsExplored(maze);
+        long jpsTime = System.nanoTime();
+        nanos[0] += bfsTime - startTime;
+        nanos[1] += aStarTime - bfsTime;
+        nanos[2] += manhattanTime - aStarTime;
+        nanos[3] += jpsTime - manhattanTime;
+    }
+
+    //Runner for the analyses on the executor selected by analysisThreads and analysisVirtualThreads
+    private static ExperimentRunner newRunner(){
+        ExecutorService executor = analysisVirtualThreads ? ExperimentRunner.virtualThreads() : ExperimentRunner.platformThreads(analysisThreads);
+        return new ExperimentRunner(executor, ANALYSIS_SEED);
+    }
+
+    //Values taken by 'for(double v = first; v < end; v += step)', so every task uses exactly the value the sequential loop would have
+    private static double[] parameterValues(double first, double end, double step){
+        int count = 0;
+        for(double v = first; v < end; v += step) count++;
+        double[] values = new double[count];
+        int i = 0;
+        for(double v = first; v < end; v += step) values[i++] = v;
+        return values;
+    }
+
     //Helper method that formats doubles
     private static Double formatDouble(double num){
         String pattern = "0.00";
@@ -0,0 +1,58 @@
+package MazePackage;
+
+//A maze together with the parameters it was generated from, as stored in the binary maze file format
+//File layout (little-endian):
+//  header (HEADER_SIZE bytes): magic "MAZE", version (short), encoding (short), dim (int), seed (long), p (double), fire x (int), fire y (int), flags (int)
+//  flags: FLAG_SEED_UNKNOWN if the maze was not generated from a recorded seed, the seed field is then 0 and must not be used
+//  body: the MazeGrid cells bit-packed at 4 bits per cell, cell index i = x * dim + y in byte i / 2 (low nibble for even i)
+//Because the body uses the same layout as MappedMazeGrid, a maze file can also be mapped directly instead of loaded onto the heap
+public class MazeFile {
+
+    static final int MAGIC = 0x455A414D; //"MAZE" read as a little-endian int
+    static final short VERSION = 1;
+    static final short ENCODING_PACKED_4BIT = 0;
+    public static final int HEADER_SIZE = 40;
+    static final int FLAG_SEED_UNKNOWN = 1;
+
+    public MazeGrid grid;
+    public int dim;
+    public long seed;
+    public boolean seedKnown = true;  //False if seed does not tell how the maze was generated
+    public double p;
+    public Point fireOrigin;
+
+    public MazeFile(MazeGrid grid, long seed, double p, Point fireOrigin){
+        this(grid.getDim(), seed, p, fireOrigin);
+        this.grid = grid;
+    }
+
+    //Header only, used by MazeFileReader before the body is loaded or mapped
+    MazeFile(int dim, long seed, double p, Point fireOrigin){
+        this.dim = dim;
+        this.seed = seed;
+        this.p = p;
+        this.fireOrigin = fireOrigin;
+    }
+
+    //Uses the first cell on fire as the fire origin (null if the maze has no fire)
+    public MazeFile(MazeGrid grid, long seed, double p){
+        this(grid, seed, p, findFireOrigin(grid));
+    }
+
+    //Maze whose seed is not known (e.g. generated from an unseeded stream or edited by hand), stored with FLAG_SEED_UNKNOWN
+    public MazeFile(MazeGrid grid, double p){
+        this(grid, 0, p);
+        this.seedKnown = false;
+    }
+
+    private static Point findFireOrigin(MazeGrid grid){
+        int dim = grid.getDim();
+        for(int i=0; i < dim; i++){
+            for(int j=0; j < dim; j++){
+                if(grid.get(i, j) == 2) return new Point(null, i, j);
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,102 @@
+package MazePackage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Reads mazes in the binary maze file format described in MazeFile using an NIO channel and a reusable direct buffer
+public class MazeFileReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    //Loads the whole maze onto the heap as a MazeGrid
+    public MazeFile read(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            return read(channel);
+        }
+    }
+
+    //Reads the header and packed body from an open channel positioned at the start of a maze
+    public MazeFile read(FileChannel channel) throws IOException {
+        MazeFile header = readHeader(channel);
+        MazeGrid grid = new MazeGrid(header.dim);
+        readWords(channel, grid.cells, MappedMazeGrid.bytesFor(grid.getDim()));
+        grid.recomputeFingerprint();
+        header.grid = grid;
+        return header;
+    }
+
+    //Maps the maze body straight from the file instead of loading it, for mazes larger than the heap
+    //Changes made to the returned grid are written back to the file
+    public MazeFile map(Path file) throws IOException {
+        MazeFile header;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            header = readHeader(channel);
+        }
+        header.grid = MappedMazeGrid.open(file, header.dim, MazeFile.HEADER_SIZE);
+        return header;
+    }
+
+    //Reads and validates the header, the returned MazeFile has no grid yet
+    private MazeFile readHeader(FileChannel channel) throws IOException {
+        buffer.clear();
+        buffer.limit(MazeFile.HEADER_SIZE);
+        fill(channel);
+        buffer.flip();
+        if(buffer.getInt() != MazeFile.MAGIC) throw new IOException("Not a maze file");
+        short version = buffer.getShort();
+        if(version != MazeFile.VERSION) throw new IOException("Unsupported maze file version: " + version);
+        short encoding = buffer.getShort();
+        if(encoding != MazeFile.ENCODING_PACKED_4BIT) throw new IOException("Unsupported maze file encoding: " + encoding);
+        int dim = buffer.getInt();
+        if(dim <= 0) throw new IOException("Invalid maze dimension: " + dim);
+        long seed = buffer.getLong();
+        double p = buffer.getDouble();
+        int fireX = buffer.getInt();
+        int fireY = buffer.getInt();
+        int flags = buffer.getInt();
+        Point fireOrigin = (fireX < 0 || fireY < 0) ? null : new Point(null, fireX, fireY);
+        MazeFile header = new MazeFile(dim, seed, p, fireOrigin);
+        header.seedKnown = (flags & MazeFile.FLAG_SEED_UNKNOWN) == 0;
+        return header;
+    }
+
+    //Fills the packed long words of a heap grid directly from the file body
+    private void readWords(FileChannel channel, long[] cells, long bodyBytes) throws IOException {
+        long remaining = bodyBytes;
+        int word = 0;
+        while(remaining > 0){
+            buffer.clear();
+            if(remaining < buffer.capacity()) buffer.limit((int) remaining);
+            fill(channel);
+            buffer.flip();
+            remaining -= buffer.remaining();
+            int words = buffer.remaining() / Long.BYTES;
+            buffer.asLongBuffer().get(cells, word, words);
+            buffer.position(buffer.position() + words * Long.BYTES);
+            word += words;
+            //Buffer capacity is a multiple of 8 so only the final chunk can end in a partial word
+            if(buffer.hasRemaining()){
+                long last = 0;
+                for(int shift = 0; buffer.hasRemaining(); shift += 8){
+                    last |= (buffer.get() & 0xFFL) << shift;
+                }
+                cells[word] = last;
+            }
+        }
+    }
+
+    //Reads until the buffer is full, failing if the file ends early
+    private void fill(FileChannel channel) throws IOException {
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer) < 0) throw new EOFException("Maze file ended unexpectedly");
+        }
+    }
+
+}
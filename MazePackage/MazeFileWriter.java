@@ -0,0 +1,87 @@
+package MazePackage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Writes mazes in the binary maze file format described in MazeFile using an NIO channel and a reusable direct buffer
+public class MazeFileWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    //Writes the maze to the file passed, replacing the file if it already exists
+    public void write(Path file, MazeFile maze) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)){
+            write(channel, maze);
+        }
+    }
+
+    //Writes the header followed by the packed body to an open channel
+    public void write(FileChannel channel, MazeFile maze) throws IOException {
+        MazeGrid grid = maze.grid;
+        buffer.clear();
+        buffer.putInt(MazeFile.MAGIC);
+        buffer.putShort(MazeFile.VERSION);
+        buffer.putShort(MazeFile.ENCODING_PACKED_4BIT);
+        buffer.putInt(grid.getDim());
+        buffer.putLong(maze.seed);
+        buffer.putDouble(maze.p);
+        buffer.putInt(maze.fireOrigin == null ? -1 : maze.fireOrigin.x);
+        buffer.putInt(maze.fireOrigin == null ? -1 : maze.fireOrigin.y);
+        buffer.putInt(maze.seedKnown ? 0 : MazeFile.FLAG_SEED_UNKNOWN);
+
+        long bodyBytes = MappedMazeGrid.bytesFor(grid.getDim());
+        if(grid.cells != null){
+            writeWords(channel, grid.cells, bodyBytes);
+        }else{
+            writeCells(channel, grid);
+        }
+    }
+
+    //Fast path for heap grids: the packed long words already match the file layout when written little-endian
+    private void writeWords(FileChannel channel, long[] cells, long bodyBytes) throws IOException {
+        long remaining = bodyBytes;
+        for(int i=0; i < cells.length; i++){
+            if(buffer.remaining() < Long.BYTES) drain(channel);
+            if(remaining >= Long.BYTES){
+                buffer.putLong(cells[i]);
+                remaining -= Long.BYTES;
+            }else{
+                //Last partial word, only write the bytes that belong to the maze
+                long word = cells[i];
+                for(; remaining > 0; remaining--){
+                    buffer.put((byte) word);
+                    word >>>= 8;
+                }
+            }
+        }
+        drain(channel);
+    }
+
+    //Slow path for grids that are not heap backed (e.g. MappedMazeGrid), packs two cells per byte
+    private void writeCells(FileChannel channel, MazeGrid grid) throws IOException {
+        int totalCells = grid.getDim() * grid.getDim();
+        for(int i=0; i < totalCells; i += 2){
+            if(!buffer.hasRemaining()) drain(channel);
+            int low = grid.getCell(i);
+            int high = (i + 1 < totalCells) ? grid.getCell(i + 1) : 0;
+            buffer.put((byte) (low | (high << 4)));
+        }
+        drain(channel);
+    }
+
+    private void drain(FileChannel channel) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,178 @@
+package MazePackage;
+
+//Square maze grid that packs each cell into 4 bits of a flat long[] (16 cells per word) instead of a full int per cell
+//Cells hold the same values used throughout MazeManager: 0 free, 1 obstacle, 2 fire, 7 path, 9 burned
+//Cell (x, y) is stored at index x * dim + y, so a whole maze copy is a single System.arraycopy
+//A 64 bit fingerprint of the contents (XOR of a hash of every non-free cell) is kept up to date by setCell(), so different mazes can
+//almost always be told apart without comparing them cell by cell (SearchCache hashes on it and compares the cells only on a hit)
+//Cell indexes are ints, so dim is at most 46340. Grids are AutoCloseable so that copies of grids kept outside the heap (MappedMazeGrid)
+//can be released explicitly, close() does nothing for heap grids
+public class MazeGrid implements AutoCloseable {
+
+    private static final int BITS_PER_CELL = 4;
+    private static final int CELLS_PER_WORD = 64 / BITS_PER_CELL;
+    private static final long CELL_MASK = (1L << BITS_PER_CELL) - 1;
+
+    final int dim;
+    final long[] cells;
+    long fingerprint = 0;
+
+    public MazeGrid(int dim){
+        this(dim, new long[wordsFor(dim)]);
+    }
+
+    //Used by subclasses that keep their cells somewhere other than the heap (cells is null for those)
+    MazeGrid(int dim, long[] cells){
+        if((long) dim * dim > Integer.MAX_VALUE) throw new IllegalArgumentException("Maze dimension too large: " + dim);
+        this.dim = dim;
+        this.cells = cells;
+    }
+
+    //Number of longs needed to hold a dim x dim grid
+    static int wordsFor(int dim){
+        long totalCells = (long) dim * dim;
+        return (int) ((totalCells + CELLS_PER_WORD - 1) / CELLS_PER_WORD);
+    }
+
+    public int getDim(){
+        return dim;
+    }
+
+    //Hash of the maze contents, equal grids of the same dimension always have equal fingerprints
+    public long fingerprint(){
+        return fingerprint;
+    }
+
+    //Contribution of one cell to the fingerprint, free cells contribute nothing so an empty maze has fingerprint 0
+    static long cellHash(int index, int value){
+        if(value == 0) return 0L;
+        long z = (((long) index << 4) | value) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    //Recomputes the fingerprint from scratch, needed after the cells were filled without going through setCell() (e.g. read from a file)
+    void recomputeFingerprint(){
+        long hash = 0L;
+        int totalCells = dim * dim;
+        for(int i=0; i < totalCells; i++){
+            hash ^= cellHash(i, getCell(i));
+        }
+        fingerprint = hash;
+    }
+
+    //Returns the value of cell (x, y)
+    public int get(int x, int y){
+        return getCell(x * dim + y);
+    }
+
+    //Sets cell (x, y) to the value passed, value must fit in 4 bits
+    public void set(int x, int y, int value){
+        setCell(x * dim + y, value);
+    }
+
+    //Returns true if the cell can be stepped on (not an obstacle and not on fire)
+    public boolean isOpen(int x, int y){
+        int value = getCell(x * dim + y);
+        return value != 1 && value != 2;
+    }
+
+    //Index based accessors used by the search and fire code that encode cells as x * dim + y
+    int getCell(int index){
+        int shift = (index & (CELLS_PER_WORD - 1)) << 2;
+        return (int) ((cells[index >>> 4] >>> shift) & CELL_MASK);
+    }
+
+    void setCell(int index, int value){
+        int word = index >>> 4;
+        int shift = (index & (CELLS_PER_WORD - 1)) << 2;
+        int old = (int) ((cells[word] >>> shift) & CELL_MASK);
+        value &= CELL_MASK;
+        if(old == value) return;
+        cells[word] = (cells[word] & ~(CELL_MASK << shift)) | ((long) value << shift);
+        fingerprint ^= cellHash(index, old) ^ cellHash(index, value);
+    }
+
+    //Copy of the cells packed as in a heap grid (16 per word), whatever the grid keeps them in
+    long[] packedCells(){
+        if(cells != null) return cells.clone();
+        long[] words = new long[wordsFor(dim)];
+        int totalCells = dim * dim;
+        for(int i=0; i < totalCells; i++){
+            words[i >>> 4] |= (long) getCell(i) << ((i & (CELLS_PER_WORD - 1)) << 2);
+        }
+        return words;
+    }
+
+    //Returns true if the grid holds exactly the cells packed in words, as returned by packedCells()
+    boolean hasCells(long[] words){
+        if(cells != null) return java.util.Arrays.equals(cells, words);
+        if(words.length != wordsFor(dim)) return false;
+        int totalCells = dim * dim;
+        for(int i=0; i < totalCells; i++){
+            int value = (int) ((words[i >>> 4] >>> ((i & (CELLS_PER_WORD - 1)) << 2)) & CELL_MASK);
+            if(getCell(i) != value) return false;
+        }
+        return true;
+    }
+
+    //Resets every cell back to free (0)
+    public void clear(){
+        java.util.Arrays.fill(cells, 0L);
+        fingerprint = 0L;
+    }
+
+    //Duplicates the grid with a single array copy
+    public MazeGrid copy(){
+        MazeGrid copy = new MazeGrid(dim);
+        System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+        copy.fingerprint = fingerprint;
+        return copy;
+    }
+
+    //Releases storage the grid holds outside the heap, nothing to do for heap grids
+    @Override
+    public void close(){
+    }
+
+    //Overwrites this grid with the contents of another grid of the same dimension, no allocation
+    public void copyFrom(MazeGrid other){
+        if(other.dim != dim) throw new IllegalArgumentException("Maze dimensions do not match: " + other.dim + " vs " + dim);
+        if(other.cells != null){
+            System.arraycopy(other.cells, 0, cells, 0, cells.length);
+            fingerprint = other.fingerprint;
+            return;
+        }
+        //Other grid is not heap backed, fall back to copying cell by cell
+        int totalCells = dim * dim;
+        for(int i=0; i < totalCells; i++){
+            setCell(i, other.getCell(i));
+        }
+    }
+
+//------------------------------ int[][] Adapters ------------------------------
+    //Builds a packed grid from a square int[][] maze
+    public static MazeGrid fromArray(int[][] maze){
+        int dim = maze.length;
+        MazeGrid grid = new MazeGrid(dim);
+        for(int i=0; i < dim; i++){
+            for(int j=0; j < dim; j++){
+                grid.set(i, j, maze[i][j]);
+            }
+        }
+        return grid;
+    }
+
+    //Expands the packed grid back into an int[][] maze
+    public int[][] toArray(){
+        int[][] maze = new int[dim][dim];
+        for(int i=0; i < dim; i++){
+            for(int j=0; j < dim; j++){
+                maze[i][j] = get(i, j);
+            }
+        }
+        return maze;
+    }
+
+}
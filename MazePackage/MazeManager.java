@@ -1,163 +1,305 @@
 package MazePackage;
 
-import java.util.Random;
-import java.util.Stack;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
 import java.util.*;
 
 public class MazeManager {
 
-    static Random rand = new Random();
+    private final SplittableRandom rand;  //Generates the mazes, and is split for the fire of strategies not given their own stream
+
+    private final GridSearch search = new GridSearch();  //Reusable buffers for DFS and BFS searches
+    private final ConnectivityIndex connectivity = new ConnectivityIndex();  //Reusable index returned by connectivityIndex()
+    private final GenerationStats generationStats = new GenerationStats();  //Mazes generated and candidates rejected per (dim, p)
+    private int[] floodQueue = new int[0];  //Reusable flood fill buffers used to validate generated mazes
+    private long[] floodSeen = new long[0];
+    private int lastFireX = -1;  //Where the fire of the last generated maze started
+    private int lastFireY = -1;
+    private final FireDistanceField fireField = new FireDistanceField();  //Reusable fire distances used by strategy3()
+    private MazeGrid scanMaze;  //Reusable copy of the maze that scanPath() marks the cells to avoid on
+    private MazeGrid planMaze;  //Reusable copy of the fire maze the hierarchical mode of strategy2() plans on
+    private static final int STRATEGY3_REPLANS_PER_DIM = 2;  //strategy3() changes path at most this many times the maze dimension
+    private int lastStrategy3Steps = 0;
+    private final FireSimulator fire;  //Reusable fire simulator stepped by every strategy
+    private final SpaceTimePlanner spaceTime = new SpaceTimePlanner();  //Reusable space-time planner used by strategy4()
+    private final IgnitionTimeSampler ignitionSampler;  //Reusable event-driven fire sampler
+    private ParallelBFS parallelSearch;  //Created the first time mazeParallelBFS() is used
+    private final IDAStar idaStar = new IDAStar();  //Memory-bounded search mode of mazeAStar()
+    private final SearchCache cache = new SearchCache(64);  //Results of mazeDFS(), mazeBFS() and mazeAStar() for recently searched mazes
+    private boolean reportOutcomes = true;  //Whether strategies print how each run ended
+    private int aStarPointsExpanded = 0;  //Points expanded by the last A* search of mazeAStar()
+
+    //Manager with an unseeded stream, every run is different
+    public MazeManager(){
+        this(new SplittableRandom());
+    }
+
+    //Manager whose mazes and fires all come from the stream passed, so a run can be reproduced from its seed (see RandomStreams)
+    public MazeManager(SplittableRandom rand){
+        this.rand = rand;
+        this.fire = new FireSimulator(rand.split(), FireSimulator.SPARSE);
+        this.ignitionSampler = new IgnitionTimeSampler(rand.split());
+    }
 
 //------------------------------ Maze Generators ------------------------------
     //Generates initial maze (no fire) based on dimension and probability of obstacles
-    public int[][] generateMaze(int dim, double p){
-        int [][] maze = new int[dim][dim];
+    public MazeGrid generateMaze(int dim, double p){
+        return generateMaze(new MazeGrid(dim), p);
+    }
+
+    //Generates initial maze (no fire) into the grid passed, so mazes can be generated directly into off-heap storage such as MappedMazeGrid
+    public MazeGrid generateMaze(MazeGrid maze, double p){
+        return generateMaze(maze, p, rand);
+    }
+
+    //Same as generateMaze(maze, p) with the obstacles drawn from the stream passed instead of the manager's own
+    public MazeGrid generateMaze(MazeGrid maze, double p, SplittableRandom rand){
+        int dim = maze.getDim();
         for(int i=0; i < dim; i++){
             for(int j=0; j < dim; j++){
-                if((i == 0 && j == 0) || (i == dim-1 && j == dim-1)) continue; // Skip if start or goal state
-                if(rand.nextDouble() <= p) maze[i][j] = 1; // 1 - represents obstacle
+                if((i == 0 && j == 0) || (i == dim-1 && j == dim-1)){
+                    maze.set(i, j, 0);  // Start and goal state always free
+                }else{
+                    maze.set(i, j, (rand.nextDouble() <= p) ? 1 : 0); // 1 - represents obstacle
+                }
             }
         }
         return maze;
     }
 
     //Generates initial maze of fire based on dimension, probability of obstacles, and probability of fire
-    public int[][] generateMazeOfFire(int dim, double p){
+    public MazeGrid generateMazeOfFire(int dim, double p){
+        return generateMazeOfFire(new MazeGrid(dim), p);
+    }
+
+    //Generates initial maze of fire into the grid passed, the same grid is refilled until a valid maze comes out
+    //Each candidate is validated by a single flood fill (see isValidFireMaze()) and nothing is allocated per rejected candidate
+    public MazeGrid generateMazeOfFire(MazeGrid maze, double p){
+        return generateMazeOfFire(maze, p, rand);
+    }
+
+    //Same as generateMazeOfFire(maze, p) with the maze drawn from the stream passed instead of the manager's own, so a maze can be
+    //regenerated from the seed of its stream alone (see MazeCorpusGenerator)
+    public MazeGrid generateMazeOfFire(MazeGrid maze, double p, SplittableRandom rand){
+        long rejected = 0;
+        int fireCell = fillMazeOfFire(maze, p, rand);
+        while(!isValidFireMaze(maze, fireCell)){
+            rejected++;
+            fireCell = fillMazeOfFire(maze, p, rand);
+        }
+        lastFireX = fireCell / maze.getDim();
+        lastFireY = fireCell % maze.getDim();
+        generationStats.record(maze.getDim(), p, rejected);
+        return maze;
+    }
+
+    //generateMazeOfFire() helper method that overwrites every cell of the grid with obstacles and a single fire, returns the fire's cell index
+    private int fillMazeOfFire(MazeGrid maze, double p, SplittableRandom rand){
+        int dim = maze.getDim();
         int firePos = rand.nextInt(((dim-1) * 2) - 2) + 1; //random integer in range of indexes between start and goal state
-        Point firePoint = new Point(null, 0, 0);
-        int [][] maze = new int[dim][dim];
+        int fireCell = -1;
         for(int i=0; i < dim; i++){
             for(int j=0; j < dim; j++){
                 firePos--;
+                maze.set(i, j, 0);
                 if((i == 0 && j == 0) || (i == dim-1 && j == dim-1)) continue; // Skip if start or goal state
                 if(firePos == 0){
-                    maze[i][j] = 2; //2 - represents fire
-                    firePoint.x = i;
-                    firePoint.y = j;
+                    maze.set(i, j, 2); //2 - represents fire
+                    fireCell = i * dim + j;
                 }else if(rand.nextDouble() <= p){
-                    maze[i][j] = 1; // 1 - represents obstacle
+                    maze.set(i, j, 1); // 1 - represents obstacle
                 }
             }
         }
-
-        return discardMalformedMaze(maze, new Point(null, 0, 0), firePoint, dim, p);
+        return fireCell;
     }
 
-    //Helper method that will continuously discard mazes until one is found with a path from start to goal and from fire to start (agent)
-    private int[][] discardMalformedMaze(int[][] maze, Point start, Point firePoint, int dim, double p){
-        while(!mazeDFS(maze, start, new Point(null, dim-1, dim-1)) || !mazeDFS(maze, firePoint, start)){
-            maze = generateMazeOfFire(dim, p);
+    //generateMazeOfFire() helper method that checks there is a path from start to goal and from the fire to start (agent) with one
+    //flood fill from the start over the open cells, stopping as soon as it has reached both the goal and a neighbour of the fire
+    //Candidates without a fire (the fire position fell on the start cell, which is skipped) are rejected too
+    private boolean isValidFireMaze(MazeGrid maze, int fireCell){
+        if(fireCell < 0) return false;
+        int dim = maze.getDim();
+        int cells = dim * dim;
+        int words = (cells + 63) >>> 6;
+        if(floodQueue.length < cells){
+            floodQueue = new int[cells];
+            floodSeen = new long[words];
+        }else{
+            Arrays.fill(floodSeen, 0, words, 0L);
         }
-        return maze;
+        int fireX = fireCell / dim;
+        int fireY = fireCell - fireX * dim;
+        int goal = cells - 1;
+        boolean goalFound = false;
+        boolean fireFound = false;
+        int head = 0;
+        int tail = 0;
+        floodQueue[tail++] = 0;
+        floodSeen[0] = 1L;
+        while(head < tail){
+            int cell = floodQueue[head++];
+            int x = cell / dim;
+            int y = cell - x * dim;
+            if(cell == goal) goalFound = true;
+            if(Math.abs(x - fireX) + Math.abs(y - fireY) == 1) fireFound = true;
+            if(goalFound && fireFound) return true;
+            if(x > 0) tail = flood(maze, cell - dim, tail);
+            if(x < dim - 1) tail = flood(maze, cell + dim, tail);
+            if(y > 0) tail = flood(maze, cell - 1, tail);
+            if(y < dim - 1) tail = flood(maze, cell + 1, tail);
+        }
+        return false;
+    }
+
+    private int flood(MazeGrid maze, int cell, int tail){
+        if((floodSeen[cell >>> 6] & (1L << cell)) != 0) return tail;
+        int value = maze.getCell(cell);
+        if(value == 1 || value == 2) return tail;
+        floodSeen[cell >>> 6] |= 1L << cell;
+        floodQueue[tail] = cell;
+        return tail + 1;
+    }
+
+    //Where the fire of the last maze generated by generateMazeOfFire() started, null if no fire maze was generated yet
+    public Point getLastFireOrigin(){
+        if(lastFireX < 0) return null;
+        return new Point(null, lastFireX, lastFireY);
+    }
+
+    //Fire mazes generated and candidates rejected so far, per dimension and obstacle probability
+    public GenerationStats getGenerationStats(){
+        return generationStats;
     }
 
 //------------------------------ Search Algorithms and Strategy Methods ------------------------------
-    //Traverses maze using Depth-First Search algorithm and returns true if path to goal is possible, false otherwise
-    public boolean mazeDFS(int[][]maze, Point start, Point goal){
-        Stack<Point> fringe = new Stack<Point>();
-        fringe.push(start);
+    //Builds the connectivity index of the maze (one linear pass) so any number of reachability questions can be answered in constant time
+    //The index returned is reused by the next call, so it should be queried before building another
+    public ConnectivityIndex connectivityIndex(MazeGrid maze){
+        connectivity.build(maze);
+        return connectivity;
+    }
 
-        ArrayList<Point> closedPoints = new ArrayList<Point>();
-        while(!fringe.isEmpty()){
-            Point curr = fringe.pop();
-            if(curr.equals(goal)){
-                return true;
-            }
-            ArrayList<Point> possibleSteps = generateSteps(maze, curr);
-            for(Point p : possibleSteps){
-                //If possible step is not a path already taken, then add to fringe
-                if(!p.existsIn(closedPoints)) fringe.push(p);
-            }
-            closedPoints.add(curr);
-        }
-        return false;
+    //Hit, miss and eviction counts of the cache in front of mazeDFS(), mazeBFS() and mazeAStar()
+    public SearchCache getSearchCache(){
+        return cache;
+    }
+
+    //Builds a hierarchical (HPA*) pathfinder over the maze for answering many path queries on it, see HierarchicalPathfinder
+    //Build time is linear in the maze size, after which each query costs roughly the number of clusters it crosses
+    //Call cellChanged() on it for every cell changed afterwards; strategy2(maze, q, fireRandom, true) does so for each ignition
+    public HierarchicalPathfinder hierarchicalPathfinder(MazeGrid maze){
+        return new HierarchicalPathfinder(maze);
+    }
+
+    //Traverses maze using Depth-First Search algorithm and returns true if path to goal is possible, false otherwise
+    public boolean mazeDFS(MazeGrid maze, Point start, Point goal){
+        int cached = cache.getReachable(SearchCache.DFS, maze, start, goal);
+        if(cached >= 0) return cached == 1;
+        int dim = maze.getDim();
+        boolean reachable = search.dfs(maze, start.x * dim + start.y, goal.x * dim + goal.y);
+        cache.putReachable(SearchCache.DFS, maze, start, goal, reachable);
+        return reachable;
     }
 
     //Traverses maze using Breath-First Search algorithm and returns list of Points creating a minimal path to goal if possible, null otherwise
-    public ArrayList<Point> mazeBFS(int[][] maze){
-        Point goal = new Point(null, maze.length-1, maze.length-1);
-        Queue<Point> fringe = new LinkedList<>();
+    public ArrayList<Point> mazeBFS(MazeGrid maze){
+        int dim = maze.getDim();
         Point start = new Point(null, 0, 0);
-        fringe.add(start);
+        Point goal = new Point(null, dim - 1, dim - 1);
+        ArrayList<Point> cached = cache.getPath(SearchCache.BFS, maze, start, goal);
+        if(cached != null) return cached.isEmpty() ? null : cached;
+        ArrayList<Point> path = null;
+        int end = search.bfs(maze, 0, dim * dim - 1);
+        if(end >= 0) path = search.tracePath(end, dim);
+        cache.putPath(SearchCache.BFS, maze, start, goal, path);
+        return path;
+    }
 
-        ArrayList<Point> closedPoints = new ArrayList<Point>();
-        while(!fringe.isEmpty()){
-            Point curr = fringe.remove();
-            if(curr.equals(goal)){
-                ArrayList<Point> path = tracePath(curr, start);
-                return path;
-            }
-            ArrayList<Point> possibleSteps = generateSteps(maze, curr);
-            for(Point p : possibleSteps){
-                //If possible step is not a path already taken, then add to fringe
-                if(!p.existsIn(closedPoints)) fringe.add(p);
-            }
-            closedPoints.add(curr);
-        }
-        return null;
+    //Same result as mazeBFS() computed by a level-synchronous parallel BFS on the common fork/join pool (see ParallelBFS), for huge mazes
+    public ArrayList<Point> mazeParallelBFS(MazeGrid maze){
+        if(parallelSearch == null) parallelSearch = new ParallelBFS();
+        int dim = maze.getDim();
+        int goal = parallelSearch.bfs(maze, 0, dim * dim - 1);
+        if(goal < 0) return null;
+        return parallelSearch.tracePath(goal);
     }
 
     //Traverses maze using Breath-First Search algorithm and returns number of points(nodes) explored
-    public int mazeBFSPointsExplored(int[][] maze){
-        Point goal = new Point(null, maze.length-1, maze.length-1);
-        Queue<Point> fringe = new LinkedList<>();
-        Point start = new Point(null, 0, 0);
+    public int mazeBFSPointsExplored(MazeGrid maze){
+        int dim = maze.getDim();
+        search.bfs(maze, 0, dim * dim - 1);
+        return search.getPointsExplored();
+    }
 
-        int pointsExplored = 0;
-        fringe.add(start);
+    //Traverses maze using Breath-First Search algorithm and returns number of points(nodes) expanded, unlike mazeBFSPointsExplored()
+    //cells discovered on the last level but never taken off the queue are not counted
+    public int mazeBFSPointsExpanded(MazeGrid maze){
+        int dim = maze.getDim();
+        search.bfs(maze, 0, dim * dim - 1);
+        return search.getPointsExpanded();
+    }
 
-        ArrayList<Point> closedPoints = new ArrayList<Point>();
-        while(!fringe.isEmpty()){
-            Point curr = fringe.remove();
-            if(curr.equals(goal)){
-                return pointsExplored;
-            }
-            ArrayList<Point> possibleSteps = generateSteps(maze, curr);
-            for(Point p : possibleSteps){
-                //If possible step is not a path already taken, then add to fringe
-                if(!p.existsIn(closedPoints)){
-                    pointsExplored++;
-                    fringe.add(p);
-                }
-            }
-            closedPoints.add(curr);
-        }
-        return pointsExplored;
+    //Drop-in for mazeDFS() that searches from start and goal at the same time and returns true as soon as the two searches meet
+    public boolean mazeBidirectionalReachable(MazeGrid maze, Point start, Point goal){
+        int dim = maze.getDim();
+        return search.bidirectionalBFS(maze, start.x * dim + start.y, goal.x * dim + goal.y, false);
+    }
+
+    //Traverses maze using Breath-First Search from both start and goal and returns list of Points creating a minimal path to goal if possible, null otherwise
+    public ArrayList<Point> mazeBidirectionalBFS(MazeGrid maze, Point start, Point goal){
+        int dim = maze.getDim();
+        if(!search.bidirectionalBFS(maze, start.x * dim + start.y, goal.x * dim + goal.y, true)) return null;
+        return search.traceBidirectionalPath(dim);
+    }
+
+    //Same as mazeBFS() but searching from both start (0, 0) and goal (dim-1, dim-1)
+    public ArrayList<Point> mazeBidirectionalBFS(MazeGrid maze){
+        return mazeBidirectionalBFS(maze, new Point(null, 0, 0), new Point(null, maze.getDim()-1, maze.getDim()-1));
+    }
+
+    //Traverses maze using bidirectional Breath-First Search and returns number of points(nodes) explored by both searches
+    public int mazeBidirectionalBFSPointsExplored(MazeGrid maze){
+        int dim = maze.getDim();
+        search.bidirectionalBFS(maze, 0, dim * dim - 1, true);
+        return search.getPointsExplored();
     }
 
     //Traverses maze using A* algorithm and returns list of Points creating minimal path if possible, null otherwise
     //Queue prioritizes Point's based off heuristic which is determined by de-prioritization of paths with steps 'backward' + greatest 'look-ahead path' + euclidean distance
     //'look-ahead path' - the free spaces ahead that avoids 'fire' or 'obstacle' either in the 'right' or 'down' direction
-    public ArrayList<Point> mazeAStar(int[][] maze){
-        Point goal = new Point(null, maze.length-1, maze.length-1);
+    public ArrayList<Point> mazeAStar(MazeGrid maze){
+        return mazeAStar(maze, new Point(null, 0, 0), new Point(null, maze.getDim()-1, maze.getDim()-1));
+    }
 
-        Comparator<Point> comparator = new PointComparator();
-        PriorityQueue<Point> fringe = new PriorityQueue<Point>(comparator);
-        Point start = new Point(null, 0, 0);
-        fringe.add(start);
+    //Modified A* algorithm that takes a start and goal point, results are served from the search cache when the same maze was searched recently
+    public ArrayList<Point> mazeAStar(MazeGrid maze, Point start, Point goal){
+        ArrayList<Point> cached = cache.getPath(SearchCache.A_STAR, maze, start, goal);
+        if(cached != null) return cached.isEmpty() ? null : cached;
+        ArrayList<Point> path = searchAStar(maze, start, goal);
+        cache.putPath(SearchCache.A_STAR, maze, start, goal, path);
+        return path;
+    }
 
-        ArrayList<Point> closedPoints = new ArrayList<Point>();
-        while(!fringe.isEmpty()){
-            Point curr = fringe.remove();
-            if(curr.equals(goal)){
-                ArrayList<Point> path = tracePath(curr, start);
-                return path;
-            }
-            ArrayList<Point> possibleSteps = generateStepsWithHeuristic(maze, curr, curr.stepsTaken);
-            for(Point p : possibleSteps){
-                //If possible step is not a path already taken, then add to fringe
-                if(!p.existsIn(closedPoints)) fringe.add(p);
-            }
-            closedPoints.add(curr);
-        }
-        return null;
+    //Same as mazeAStar(maze, start, goal) when memoryBounded is false, otherwise uses IDA* (see IDAStar) whose memory grows with the
+    //length of the path instead of the explored area, trading repeated expansions for memory on very large mazes
+    //The memory-bounded mode always returns a minimal path and is not cached, since the cache itself would hold on to memory
+    //IDA* only gives up once its bound passes every cell it can reach, searching the whole start region again in every round, so
+    //unreachable goals are ruled out first with GridSearch.reachable(), which needs at most 3 bits per cell
+    public ArrayList<Point> mazeAStar(MazeGrid maze, Point start, Point goal, boolean memoryBounded){
+        if(!memoryBounded) return mazeAStar(maze, start, goal);
+        int dim = maze.getDim();
+        if(!search.reachable(maze, start.x * dim + start.y, goal.x * dim + goal.y)) return null;
+        return idaStar.search(maze, start, goal);
     }
 
-    //Modified A* algorithm that takes a start and goal point
-    public ArrayList<Point> mazeAStar(int[][] maze, Point start, Point goal){
+    //mazeAStar() helper that runs the search itself, counting the points it expands in aStarPointsExpanded
+    private ArrayList<Point> searchAStar(MazeGrid maze, Point start, Point goal){
         Comparator<Point> comparator = new PointComparator();
         PriorityQueue<Point> fringe = new PriorityQueue<Point>(comparator);
         fringe.add(start);
+        aStarPointsExpanded = 0;
 
         ArrayList<Point> closedPoints = new ArrayList<Point>();
         while(!fringe.isEmpty()){
@@ -166,6 +308,7 @@ public class MazeManager {
                 ArrayList<Point> path = tracePath(curr, start);
                 return path;
             }
+            if(curr != start) aStarPointsExpanded++;
             ArrayList<Point> possibleSteps = generateStepsWithHeuristic(maze, curr, curr.stepsTaken);
             for(Point p : possibleSteps){
                 //If possible step is not a path already taken, then add to fringe
@@ -176,9 +319,16 @@ public class MazeManager {
         return null;
     }
 
+    //Traverses maze using the A* algorithm of mazeAStar() (bypassing the search cache) and returns number of points(nodes) expanded,
+    //a point the search reaches more than once is counted every time it is expanded
+    public int mazeAStarPointsExpanded(MazeGrid maze){
+        searchAStar(maze, new Point(null, 0, 0), new Point(null, maze.getDim()-1, maze.getDim()-1));
+        return aStarPointsExpanded;
+    }
+
     //Traverses maze using A* algorithm and returns number of points(nodes) explored
-    public int mazeAStarPointsExplored(int[][] maze){
-        Point goal = new Point(null, maze.length-1, maze.length-1);
+    public int mazeAStarPointsExplored(MazeGrid maze){
+        Point goal = new Point(null, maze.getDim()-1, maze.getDim()-1);
 
         Comparator<Point> comparator = new PointComparator();
         PriorityQueue<Point> fringe = new PriorityQueue<Point>(comparator);
@@ -206,107 +356,329 @@ public class MazeManager {
         return pointsExplored;
     }
 
+    //Traverses maze using A* with f = g + Manhattan distance and returns list of Points creating a minimal path if possible, null otherwise
+    //Unlike mazeAStar() the heuristic is admissible and consistent, the best g per cell is tracked and ties prefer the point closest to goal
+    public ArrayList<Point> mazeAStarManhattan(MazeGrid maze, Point start, Point goal){
+        int dim = maze.getDim();
+        int found = search.aStar(maze, start.x * dim + start.y, goal.x * dim + goal.y);
+        if(found < 0) return null;
+        return search.tracePath(found, dim);
+    }
+
+    //Traverses maze using A* with f = g + Manhattan distance and returns number of points(nodes) expanded
+    public int mazeAStarManhattanPointsExplored(MazeGrid maze){
+        int dim = maze.getDim();
+        search.aStar(maze, 0, dim * dim - 1);
+        return search.getPointsExplored();
+    }
+
+    //Traverses maze using Jump Point Search and returns list of Points creating a minimal path if possible, null otherwise
+    //Same results as mazeAStarManhattan() but symmetric paths through open areas are pruned, so far fewer points are expanded on sparse mazes
+    public ArrayList<Point> mazeJPS(MazeGrid maze, Point start, Point goal){
+        int dim = maze.getDim();
+        int found = search.jumpPointSearch(maze, start.x * dim + start.y, goal.x * dim + goal.y);
+        if(found < 0) return null;
+        return search.traceJumpPath(found, dim);
+    }
+
+    //Same as mazeJPS() from start (0, 0) to goal (dim-1, dim-1)
+    public ArrayList<Point> mazeJPS(MazeGrid maze){
+        return mazeJPS(maze, new Point(null, 0, 0), new Point(null, maze.getDim()-1, maze.getDim()-1));
+    }
+
+    //Traverses maze using Jump Point Search and returns number of points(jump points) expanded
+    public int mazeJPSPointsExplored(MazeGrid maze){
+        int dim = maze.getDim();
+        search.jumpPointSearch(maze, 0, dim * dim - 1);
+        return search.getPointsExplored();
+    }
+
     //Implementation of Strategy 1 as described in project description
     //Generates path to goal using A* algorithm and follows the path 1 step at a time as the fire advances
     //Returns final state of path after either burning in fire (ending in 9 somewhere before goal state) or making it to goal state (ending in 7 at the goal state)
-    public int[][] strategy1(int[][] maze, double q){
-        int[][] mazeCopy = copyMaze(maze);  //Copy used so same maze can be reused in driver
+    public MazeGrid strategy1(MazeGrid maze, double q){
+        return strategy1(maze, q, rand.split());
+    }
+
+    //Same as strategy1(maze, q) with the fire drawn from the stream passed, strategies given equal streams face the same fire
+    public MazeGrid strategy1(MazeGrid maze, double q, SplittableRandom fireRandom){
+        fire.reset(maze, q, fireRandom);  //Simulator works on its own copy so same maze can be reused in driver
+        MazeGrid mazeCopy = fire.getMaze();
         ArrayList<Point> path = mazeAStar(maze);
         Point curr = new Point(null, 0, 0);
         for(int i=1; i < path.size(); i++){
             curr = path.get(i);
-            mazeCopy = advanceFireOneStep(mazeCopy, mazeCopy.length, q);
-            if(mazeCopy[curr.x][curr.y] == 2) {
-                System.out.println("You died in the fire!");
-                return pathResult(path, mazeCopy, curr);
+            mazeCopy = fire.step();
+            if(mazeCopy.get(curr.x, curr.y) == 2) {
+                reportOutcome("You died in the fire!");
+                return pathResult(path, fire.snapshot(), curr);
             }
         }
-        System.out.println("Congrats you made it out the fire");
-        return pathResult(path, mazeCopy, curr);
+        reportOutcome("Congrats you made it out the fire");
+        return pathResult(path, fire.snapshot(), curr);
     }
 
     //Implementation of Strategy 2 as described in project description
-    //Generates a new path upon each step using modified A* algorithm that takes start and goal points
+    //Replans upon each step using a D* Lite planner that keeps its search between steps, so only the cells that caught fire (and the
+    //parts of the search that depended on them) are repaired instead of searching the whole maze again
     //Returns final state of path after either burning in fire (ending in 9 somewhere before goal state) or making it to goal state (ending in 7 at the goal state)
-    public int[][] strategy2(int[][] maze,double q){
-        int[][] mazeCopy = copyMaze(maze);
+    public MazeGrid strategy2(MazeGrid maze, double q){
+        return strategy2(maze, q, rand.split());
+    }
+
+    //Same as strategy2(maze, q) with the fire drawn from the stream passed, strategies given equal streams face the same fire
+    public MazeGrid strategy2(MazeGrid maze, double q, SplittableRandom fireRandom){
+        fire.reset(maze, q, fireRandom);
+        MazeGrid mazeCopy = fire.getMaze();
 
         Point curr = new Point(null,0,0);
-        Point goal = new Point(null,mazeCopy.length-1,mazeCopy.length-1);
+        Point goal = new Point(null,mazeCopy.getDim()-1,mazeCopy.getDim()-1);
 
-        ArrayList<Point> path = mazeAStar(mazeCopy);
+        DStarLite planner = new DStarLite(mazeCopy, curr, goal);
         ArrayList<Point> newPath = new ArrayList<>();
         newPath.add(curr);
+        if(!planner.hasPath()) {
+            reportOutcome("No path found from current point to goal point");
+            return pathResult(newPath, fire.snapshot(), curr);
+        }
 
         while(!curr.equals(goal)) {
-            curr = path.get(1);
-            mazeCopy = advanceFireOneStep(mazeCopy,mazeCopy.length,q);
-            path = mazeAStar(mazeCopy,curr,goal);
+            curr = planner.nextStep();
+            planner.moveTo(curr);
             newPath.add(curr);
-            if(mazeCopy[curr.x][curr.y] ==2) {
-                System.out.println("You died in the fire!");
-                return pathResult(newPath,mazeCopy, curr);
+            mazeCopy = fire.step();
+            if(mazeCopy.get(curr.x, curr.y) ==2) {
+                reportOutcome("You died in the fire!");
+                return pathResult(newPath, fire.snapshot(), curr);
             }
-            if(path==null) {
-                System.out.println("No path found from current point to goal point");
-                return pathResult(newPath,mazeCopy, curr);
+            for(int i=0; i < fire.getIgnitedCount(); i++){
+                int cell = fire.getIgnited(i);
+                planner.blockCell(cell / mazeCopy.getDim(), cell % mazeCopy.getDim());
             }
+            planner.replan();
+            if(!planner.hasPath()) {
+                reportOutcome("No path found from current point to goal point");
+                return pathResult(newPath, fire.snapshot(), curr);
+            }
+        }
+        reportOutcome("Congrats you made it out the fire");
+        return pathResult(newPath, fire.snapshot(), curr);
+    }
+
+    //Same as strategy2(maze, q, fireRandom) when hierarchical is false, otherwise plans with a HierarchicalPathfinder instead of D* Lite
+    //The cells that ignite in a step are passed to cellChanged(), so only their clusters are rebuilt before the next query. Fire only
+    //ever blocks cells, so a remaining path no ignition landed on is still as short as a new one and the query is skipped until one
+    //does. Meant for large mazes; paths are close to minimal, not always
+    //Returns final state of path after either burning in fire (ending in 9 somewhere before goal state) or making it to goal state (ending in 7 at the goal state)
+    public MazeGrid strategy2(MazeGrid maze, double q, SplittableRandom fireRandom, boolean hierarchical){
+        if(!hierarchical) return strategy2(maze, q, fireRandom);
+        fire.reset(maze, q, fireRandom);
+        MazeGrid mazeCopy = fire.getMaze();
+        int dim = mazeCopy.getDim();
+        //The simulator swaps its two grids every step, so the pathfinder gets a grid of its own that is kept in step with the fire
+        planMaze = copyInto(planMaze, mazeCopy);
+        HierarchicalPathfinder planner = new HierarchicalPathfinder(planMaze);
+
+        Point curr = new Point(null,0,0);
+        Point goal = new Point(null,dim-1,dim-1);
+        ArrayList<Point> newPath = new ArrayList<>();
+        newPath.add(curr);
+        ArrayList<Point> path = planner.findPath(curr, goal);
+        if(path == null) {
+            reportOutcome("No path found from current point to goal point");
+            return pathResult(newPath, fire.snapshot(), curr);
+        }
+
+        int next = 1;
+        while(!curr.equals(goal)) {
+            curr = path.get(next++);
+            newPath.add(curr);
+            mazeCopy = fire.step();
+            if(mazeCopy.get(curr.x, curr.y) == 2) {
+                reportOutcome("You died in the fire!");
+                return pathResult(newPath, fire.snapshot(), curr);
+            }
+            for(int i=0; i < fire.getIgnitedCount(); i++){
+                int cell = fire.getIgnited(i);
+                planMaze.set(cell / dim, cell % dim, 2);
+                planner.cellChanged(cell / dim, cell % dim);
+            }
+            if(!pathBlocked(planMaze, path, next)) continue;
+            path = planner.findPath(curr, goal);
+            next = 1;
+            if(path == null) {
+                reportOutcome("No path found from current point to goal point");
+                return pathResult(newPath, fire.snapshot(), curr);
+            }
+        }
+        reportOutcome("Congrats you made it out the fire");
+        return pathResult(newPath, fire.snapshot(), curr);
+    }
+
+    //Whether any point of path from index 'from' on is on fire in maze
+    private static boolean pathBlocked(MazeGrid maze, ArrayList<Point> path, int from){
+        for(int i=from; i < path.size(); i++){
+            Point point = path.get(i);
+            if(maze.get(point.x, point.y) == 2) return true;
         }
-        System.out.println("Congrats you made it out the fire");
-        return pathResult(newPath,mazeCopy, curr);
+        return false;
     }
 
     //Strategy 3 implementation that generates an initial path to goal, scans the path ahead to determine if any point is or will be on fire soon
     //if so a new path is chosen if possible, otherwise will take the risk and proceed with same path or run into the fire if no other option
     //Returns final state of path after either burning in fire (ending in 9 somewhere before goal state) or making it to goal state (ending in 7 at the goal state)
-    public int[][] strategy3(int[][] maze, double q){
-        int[][] mazeCopy = copyMaze(maze);
+    public MazeGrid strategy3(MazeGrid maze, double q){
+        return strategy3(maze, q, rand.split());
+    }
+
+    //Same as strategy3(maze, q) with the fire drawn from the stream passed, strategies given equal streams face the same fire
+    public MazeGrid strategy3(MazeGrid maze, double q, SplittableRandom fireRandom){
+        fire.reset(maze, q, fireRandom);
+        MazeGrid mazeCopy = fire.getMaze();
         ArrayList<Point> path = mazeAStar(maze);
         Point curr = path.get(0);
         ArrayList<Point> newPath = new ArrayList<>();
         newPath.add(curr);
 
+        int replans = 0;
+        int maxReplans = STRATEGY3_REPLANS_PER_DIM * maze.getDim();
         for(int i=1; i < path.size(); i++){
             curr = path.get(i);
             newPath.add(curr);
-            mazeCopy = advanceFireOneStep(mazeCopy, mazeCopy.length, q);
-            if(mazeCopy[curr.x][curr.y] == 2){
-                System.out.println("You died in the fire!");
-                return pathResult(newPath, mazeCopy, curr);
+            mazeCopy = fire.step();
+            if(mazeCopy.get(curr.x, curr.y) == 2){
+                reportOutcome("You died in the fire!");
+                lastStrategy3Steps = newPath.size() - 1;
+                return pathResult(newPath, fire.snapshot(), curr);
             }
-            ArrayList<Point> firePoints = findFirePoints(mazeCopy);
-            ArrayList<Point> tempPath = scanPath(mazeCopy, i, path, firePoints, q);
-            //new optimal path found avoiding risks
+            //once the replan budget is spent the agent keeps to its current path, so the run always ends
+            if(replans >= maxReplans) continue;
+            ArrayList<Point> tempPath = scanPath(mazeCopy, i, path, q);
+            //new path found that is strictly safer than the rest of the current one, it starts at curr
             if(tempPath != null){
                 path = tempPath;
                 i = 0;
+                replans++;
             }
         }
-        System.out.println("Congrats you made it out the fire");
-        return pathResult(newPath, mazeCopy, curr);
+        reportOutcome("Congrats you made it out the fire");
+        lastStrategy3Steps = newPath.size() - 1;
+        return pathResult(newPath, fire.snapshot(), curr);
+    }
+
+    //Steps the agent took in the last strategy3() run, at most (maxReplans + 1) * cells since every path followed is a simple path
+    int getLastStrategy3Steps(){
+        return lastStrategy3Steps;
+    }
+
+    //Strategy 4 plans once in (x, y, t) space against predicted fire arrival times (see SpaceTimePlanner) and follows that plan,
+    //only planning again if the fire actually blocks the next cell of the plan
+    //Returns final state of path after either burning in fire (ending in 9 somewhere before goal state) or making it to goal state (ending in 7 at the goal state)
+    public MazeGrid strategy4(MazeGrid maze, double q){
+        return strategy4(maze, q, rand.split());
+    }
+
+    //Same as strategy4(maze, q) with the fire drawn from the stream passed, strategies given equal streams face the same fire
+    public MazeGrid strategy4(MazeGrid maze, double q, SplittableRandom fireRandom){
+        fire.reset(maze, q, fireRandom);
+        MazeGrid mazeCopy = fire.getMaze();
+        Point curr = new Point(null, 0, 0);
+        Point goal = new Point(null, mazeCopy.getDim() - 1, mazeCopy.getDim() - 1);
+        ArrayList<Point> path = spaceTime.plan(mazeCopy, curr, goal, q);
+        ArrayList<Point> newPath = new ArrayList<>();
+        newPath.add(curr);
+
+        int i = 1;
+        while(!curr.equals(goal)){
+            if(path == null){
+                reportOutcome("No path found from current point to goal point");
+                return pathResult(newPath, fire.snapshot(), curr);
+            }
+            Point next = path.get(i);
+            if(!mazeCopy.isOpen(next.x, next.y)){
+                path = spaceTime.plan(mazeCopy, curr, goal, q);
+                i = 1;
+                continue;
+            }
+            curr = next;
+            i++;
+            newPath.add(curr);
+            mazeCopy = fire.step();
+            if(mazeCopy.get(curr.x, curr.y) == 2){
+                reportOutcome("You died in the fire!");
+                return pathResult(newPath, fire.snapshot(), curr);
+            }
+        }
+        reportOutcome("Congrats you made it out the fire");
+        return pathResult(newPath, fire.snapshot(), curr);
+    }
+
+    //Probability of each cell being on fire at each of the next 'horizon' steps, estimated from 'rollouts' independent fire simulations
+    //run in parallel (see BurnProbabilityMap); queries on the map returned are constant time
+    public BurnProbabilityMap burnProbabilityMap(MazeGrid maze, double q, int rollouts, int horizon){
+        return BurnProbabilityMap.estimate(maze, q, rollouts, horizon, rand.nextLong());
+    }
+
+    //Deterministic approximation of the same probabilities in one O(cells) pass per step, with no sampling noise (see MeanFieldFire)
+    public MeanFieldFire meanFieldFire(MazeGrid maze, double q, int horizon){
+        return MeanFieldFire.propagate(maze, q, horizon);
+    }
+
+    //Samples when every cell of the maze catches fire in one event-driven pass (see IgnitionTimeSampler), the sampler returned answers
+    //isBurning(x, y, t) in O(1) and is reused by the next call
+    public IgnitionTimeSampler sampleIgnitionTimes(MazeGrid maze, double q){
+        ignitionSampler.sample(maze, q);
+        return ignitionSampler;
     }
 
     //Prints maze passed to function
-    public void printMaze(int[][] maze){
-        int dim = maze.length;
+    public void printMaze(MazeGrid maze){
+        int dim = maze.getDim();
         for(int i=0; i < dim; i++){
             for(int j=0; j < dim; j++){
                 if(j == dim - 1){
-                    System.out.println(maze[i][j]);
+                    System.out.println(maze.get(i, j));
                 }else{
-                    System.out.print(maze[i][j] + "\t");
+                    System.out.print(maze.get(i, j) + "\t");
                 }
             }
         }
     }
 
+    //Saves maze to a binary maze file (see MazeFile) so it can be reloaded instead of regenerated, the seed is marked as unknown
+    public void saveMaze(MazeGrid maze, double p, Path file) throws IOException {
+        new MazeFileWriter().write(file, new MazeFile(maze, p));
+    }
+
+    //Same as saveMaze(maze, p, file) for a maze generated by generateMazeOfFire(grid, p, new SplittableRandom(seed)) (or generateMaze()
+    //with the same arguments), which is stored so the maze can be regenerated that way. new MazeManager(new SplittableRandom(seed))
+    //does not reproduce it: the constructor splits that stream before any maze is drawn
+    public void saveMaze(MazeGrid maze, double p, long seed, Path file) throws IOException {
+        new MazeFileWriter().write(file, new MazeFile(maze, seed, p));
+    }
+
+    //Loads a maze previously written by saveMaze() or MazeFileWriter
+    public MazeGrid loadMaze(Path file) throws IOException {
+        return new MazeFileReader().read(file).grid;
+    }
+
+    //Turns off (or back on) the message each strategy prints when the agent escapes, burns or finds no path, e.g. for runs in parallel
+    public void setReportOutcomes(boolean reportOutcomes){
+        this.reportOutcomes = reportOutcomes;
+    }
+
+    //Strategy helper method that prints how a run ended unless outcomes are turned off
+    private void reportOutcome(String message){
+        if(reportOutcomes) System.out.println(message);
+    }
+
     //Visual of path taken, path ends in 9 if agent burnt before exit or ends in 7 at goal state (used for fire maze specifically)
-    public int[][] pathResult(ArrayList<Point> path, int[][] maze, Point end){
+    public MazeGrid pathResult(ArrayList<Point> path, MazeGrid maze, Point end){
         for(Point p : path){
-            if(maze[p.x][p.y] == 2){
-                maze[p.x][p.y] = 9;
+            if(maze.get(p.x, p.y) == 2){
+                maze.set(p.x, p.y, 9);
             }else{
-                maze[p.x][p.y] = 7;
+                maze.set(p.x, p.y, 7);
             }
             if(p == end) return maze;
         }
@@ -314,212 +686,190 @@ public class MazeManager {
     }
 
     //Visual of path taken marked with 7
-    public int[][] pathResult(ArrayList<Point> path, int[][] maze){
+    public MazeGrid pathResult(ArrayList<Point> path, MazeGrid maze){
         for(Point p : path){
-            maze[p.x][p.y] = 7;
+            maze.set(p.x, p.y, 7);
         }
         return maze;
     }
 
 //------------------------------ Utility Methods ------------------------------
     //strategy3() helper method that scans current path to see if any point in path is currently on fire, if so a newPath is attempted using A* algorithm
-    //It then scans fire points in respect to path points and determines the minimal path from a fire point to a path point and its probability of flammability
-    //Once determining the minimal path and its probability, it then checks if a path takes less than 4 steps, the probability is below a certain threshold
-    //and if the agent will pass the point before it is at risk. It will update and return an optimal path if found, null otherwise.
-    private ArrayList<Point> scanPath(int[][] maze, int currIndex, ArrayList<Point> path, ArrayList<Point> firePoints, double q){
-        int[][] tempMaze = copyMaze(maze);
+    //It then uses the fire distance field (one multi-source BFS from every fire point) to get the minimal path from the nearest fire to each path point
+    //and its probability of flammability. It then checks if a path takes less than 4 steps, the probability is below a certain threshold
+    //and if the agent will pass the point before it is at risk. It returns a new path only if it differs from the rest of the current one and
+    //is strictly safer (see pathRisk()), null otherwise, so the agent never swaps between paths of equal risk
+    private ArrayList<Point> scanPath(MazeGrid maze, int currIndex, ArrayList<Point> path, double q){
+        scanMaze = copyInto(scanMaze, maze);
+        MazeGrid tempMaze = scanMaze;
         ArrayList<Point> newPath = null;
         //Step 1: traverse path to see if any path points are currently on fire. Avoid if possible, return null immediately if nothing can be done
         for(int i=currIndex + 1; i < path.size(); i++){
             Point curr = path.get(i);
-            if(maze[curr.x][curr.y] == 2){
-                ArrayList<Point> tempPath = mazeAStar(tempMaze, path.get(currIndex), path.get(path.size() - 1));
-                if(tempPath != null)
-                    newPath = tempPath;
-                else
-                    return null;    //return nothing as no other path avoids fire, save computation
+            if(maze.get(curr.x, curr.y) == 2){
+                newPath = avoidingPath(tempMaze, path.get(currIndex), path.get(path.size() - 1));
+                if(newPath == null) return null;    //return nothing as no other path avoids fire, save computation
+                break;
             }
         }
-        //Step 2: Traverse fire points in respect to path points and fill minimalPath and probabilityOfFire arrays with
+        //Step 2: fill minimalPath and probabilityOfFire arrays for each path point the fire can reach before the agent passes it
         ArrayList<Point>[] minimalPath = new ArrayList[(path.size()-1) - currIndex];
         double[] probabilityOfFire = new double[(path.size()-1) - currIndex];
 
-        for(int i=0; i < firePoints.size(); i++){
-            for(int j=currIndex + 1; j < path.size(); j++){
-                int arrayIndex = j - currIndex - 1;
-                Point fire = firePoints.get(i);
-                Point curr = path.get(j);
-                int stepsToPoint = j - currIndex;
-                ArrayList<Point> firePath = modifiedMazeBFS(maze, fire, curr, stepsToPoint);
-                if(firePath == null) continue;
-                int fireToPoint = firePath.size() - 1;
-                if(minimalPath[arrayIndex].isEmpty() || fireToPoint < minimalPath[arrayIndex].size()-1){
-                    minimalPath[arrayIndex] = firePath;
-                    probabilityOfFire[arrayIndex] = calculateProbability(maze, firePath, q);
-                }
-            }
+        fireField.build(maze);
+        for(int j=currIndex + 1; j < path.size(); j++){
+            int arrayIndex = j - currIndex - 1;
+            Point curr = path.get(j);
+            int stepsToPoint = j - currIndex;
+            int fireToPoint = fireField.distanceTo(curr.x, curr.y);
+            if(fireToPoint < 0 || fireToPoint > stepsToPoint) continue;
+            minimalPath[arrayIndex] = fireField.pathFromFire(curr.x, curr.y);
+            probabilityOfFire[arrayIndex] = calculateProbability(maze, minimalPath[arrayIndex], q);
         }
         //Step 3: traverses minimalPath and probabilityOfFire and if the three conditions are met, then the point is at risk and a new path will be attempted to avoid it
-        double threshold = (q <= 0.3) ? q + 0.025 : (q <= 0.6) ? q : q - 0.025; //Threshold changer
+        double threshold = riskThreshold(q);
         for(int i=0; i < minimalPath.length; i++){
             int stepsToPoint = i + 1;
-            if(probabilityOfFire[i] > threshold && minimalPath[i].size() - 1 < 4 && stepsToPoint >= minimalPath[i].size()-1){
+            if(minimalPath[i] == null) continue;
+            if(isAtRisk(probabilityOfFire[i], minimalPath[i].size() - 1, stepsToPoint, threshold)){
                 for(int j=1; j < minimalPath[i].size(); j++){
-                    tempMaze[minimalPath[i].get(j).x][minimalPath[i].get(j).y] = 2;
+                    tempMaze.set(minimalPath[i].get(j).x, minimalPath[i].get(j).y, 2);
                 }
-                ArrayList<Point> tempPath = mazeAStar(tempMaze, path.get(currIndex), path.get(path.size()-1));
+                ArrayList<Point> tempPath = avoidingPath(tempMaze, path.get(currIndex), path.get(path.size() - 1));
                 if(tempPath != null){
                     newPath = tempPath;
                 }else{
                     for(int j=1; j < minimalPath[i].size(); j++){
-                        tempMaze[minimalPath[i].get(j).x][minimalPath[i].get(j).y] = 0;
+                        tempMaze.set(minimalPath[i].get(j).x, minimalPath[i].get(j).y, 0);
                     }
                 }
             }
         }
+        if(newPath == null || isSameRoute(newPath, path, currIndex)) return null;
+        if(pathRisk(maze, newPath, 0, q) >= pathRisk(maze, path, currIndex, q)) return null;
         return newPath;
     }
 
-    //strategy3()->scanPath() helper method that determines the probability of path point being set on fire
-    private double calculateProbability(int[][] maze, ArrayList<Point> firePath, double q){
-        double fireProbability = 1;
-        for(int i=1; i < firePath.size(); i++){
-            Point firePoint = firePath.get(i);
-            int k = neighborsOnFire(firePoint.x, firePoint.y, maze);
-            double prob = 1 - Math.pow((1 - q), k);
-            fireProbability *= prob;
-        }
-        return fireProbability;
+    //scanPath() helper method that runs A* on the maze with the points to avoid set on fire, null if goal cannot be reached
+    //Reachability is checked first with one DFS, since A* expands cells again and again before giving up on a closed off goal
+    //The search cache is bypassed: that maze is a scratch copy that differs on every step, so caching it would only evict useful entries
+    private ArrayList<Point> avoidingPath(MazeGrid maze, Point start, Point goal){
+        int dim = maze.getDim();
+        if(!search.dfs(maze, start.x * dim + start.y, goal.x * dim + goal.y)) return null;
+        return searchAStar(maze, start, goal);
     }
 
-    //strategy3()->scanPath() helper method that attempts to get the accurate amount of steps between path point and fire point
-    //It will return null if accurate steps is greater than steps needed for agent to pass the point or if algorithm is taking too long (likely due to long path)
-    private ArrayList<Point> modifiedMazeBFS(int[][] maze, Point start, Point goal, int steps){
-        Queue<Point> fringe = new LinkedList<>();
-        fringe.add(start);
+    //scanPath() helper method with the probability above which a point is at risk, it changes with q
+    private double riskThreshold(double q){
+        return (q <= 0.3) ? q + 0.025 : (q <= 0.6) ? q : q - 0.025;
+    }
 
-        ArrayList<Point> closedPoints = new ArrayList<Point>();
-        final long timer = System.currentTimeMillis();
-        while(!fringe.isEmpty()){
-            if(timer >= 5000) break;
-            Point curr = fringe.remove();
-            if(curr.equals(goal)){
-                ArrayList<Point> path = tracePath(curr, start);
-                if(path.size() - 1 > steps){
-                    return null;
-                }
-                return path;
-            }
-            ArrayList<Point> possibleSteps = generateSteps(maze, curr);
-            for(Point p : possibleSteps){
-                //If possible step is not a path already taken, then add to fringe
-                if(!p.existsIn(closedPoints)) fringe.add(p);
+    //scanPath() helper method: a point is at risk if the fire reaches it with high enough probability, in less than 4 steps and before the agent passes it
+    private boolean isAtRisk(double probability, int fireSteps, int stepsToPoint, double threshold){
+        return probability > threshold && fireSteps < 4 && stepsToPoint >= fireSteps;
+    }
+
+    //scanPath() helper method that scores the rest of a path after index 'from' against the fire field last built for the maze
+    //Every point on fire scores more than all points at risk together, so a path through fewer fires is always the safer one
+    private long pathRisk(MazeGrid maze, ArrayList<Point> path, int from, double q){
+        double threshold = riskThreshold(q);
+        long burning = 0;
+        long atRisk = 0;
+        for(int j=from + 1; j < path.size(); j++){
+            Point curr = path.get(j);
+            if(maze.get(curr.x, curr.y) == 2){
+                burning++;
+                continue;
             }
-            closedPoints.add(curr);
+            int fireToPoint = fireField.distanceTo(curr.x, curr.y);
+            int stepsToPoint = j - from;
+            if(fireToPoint < 0 || fireToPoint >= 4 || fireToPoint > stepsToPoint) continue;
+            if(isAtRisk(calculateProbability(maze, fireField.pathFromFire(curr.x, curr.y), q), fireToPoint, stepsToPoint, threshold)) atRisk++;
         }
-        return null;
+        return burning * maze.getDim() * maze.getDim() + atRisk;
     }
 
-    //strategy3() helper method that generates a list of points in maze that are on fire
-    private ArrayList<Point> findFirePoints(int[][] maze){
-        ArrayList<Point> firePoints = new ArrayList<>();
-        for(int i=0;i<maze.length;i++) {
-            for(int j=0;j<maze.length;j++) {
-                if(maze[i][j] == 2) {
-                    firePoints.add(new Point(null, i, j));
-                }
-            }
+    //scanPath() helper method, true if newPath follows exactly the points of path from index 'from' to its end
+    private boolean isSameRoute(ArrayList<Point> newPath, ArrayList<Point> path, int from){
+        if(newPath.size() != path.size() - from) return false;
+        for(int i=0; i < newPath.size(); i++){
+            Point a = newPath.get(i);
+            Point b = path.get(from + i);
+            if(a.x != b.x || a.y != b.y) return false;
         }
-        return firePoints;
-    }
-
-    //Helper method to advance the fire by one step, based on random probability with increased likelihood if neighbor is on fire (used by each strategy)
-    private int[][] advanceFireOneStep(int[][] maze, int length, double q){
-        int[][] mazeCopy = copyMaze(maze);
-        for(int x=0; x < length; x++){
-            for(int y=0; y < length; y++){
-                if(maze[x][y] != 1 && maze[x][y] != 2){
-                    int k = neighborsOnFire(x, y, maze);
-                    double prob = 1 - Math.pow((1 - q), k);
-                    if(rand.nextDouble() <= prob)
-                        mazeCopy[x][y] = 2;
-                }
-            }
+        return true;
+    }
+
+    //strategy3()->scanPath() helper method that determines the probability of path point being set on fire
+    private double calculateProbability(MazeGrid maze, ArrayList<Point> firePath, double q){
+        double fireProbability = 1;
+        for(int i=1; i < firePath.size(); i++){
+            Point firePoint = firePath.get(i);
+            int k = neighborsOnFire(firePoint.x, firePoint.y, maze);
+            double prob = 1 - Math.pow((1 - q), k);
+            fireProbability *= prob;
         }
-        return mazeCopy;
+        return fireProbability;
     }
 
-    //advanceFireOneStep() helper method that counts the number of neighbors on fire
-    private int neighborsOnFire(int x, int y, int[][] maze){
+    //calculateProbability() helper method that counts the number of neighbors on fire
+    private int neighborsOnFire(int x, int y, MazeGrid maze){
         int fire = 0;
-        if((x - 1 >= 0) && (maze[x - 1][y] == 2)) fire++;
-        if((x + 1 < maze.length) && (maze[x + 1][y] == 2)) fire++;
-        if((y - 1 >= 0) && (maze[x][y - 1] == 2)) fire++;
-        if((y + 1 < maze.length) && (maze[x][y + 1] == 2)) fire++;
+        if((x - 1 >= 0) && (maze.get(x - 1, y) == 2)) fire++;
+        if((x + 1 < maze.getDim()) && (maze.get(x + 1, y) == 2)) fire++;
+        if((y - 1 >= 0) && (maze.get(x, y - 1) == 2)) fire++;
+        if((y + 1 < maze.getDim()) && (maze.get(x, y + 1) == 2)) fire++;
         return fire;
     }
 
-    //Helper method that duplicates current maze, used for various purposes
-    public int[][] copyMaze(int[][] maze){
-        int length = maze.length;
-        int[][] copy = new int[length][length];
-        for(int i=0; i < length; i++){
-            System.arraycopy(maze[i], 0, copy[i], 0, length);
-        }
-        return copy;
+    //Helper method that duplicates current maze, used for various purposes. Close the copy once done if the maze is a MappedMazeGrid
+    public MazeGrid copyMaze(MazeGrid maze){
+        return maze.copy();
     }
 
-    //Helper method that returns list of possible non-restricted steps from the current point passed (used by DFS and BFS search algorithms)
-    private ArrayList<Point> generateSteps(int[][] maze, Point point){
-        ArrayList<Point> steps = new ArrayList<>();
-        //Check to see if moving 'up' is possible
-        if((point.x - 1 >= 0) && (maze[point.x - 1][point.y] != 1) && (maze[point.x - 1][point.y] != 2))
-            steps.add(new Point(point, point.x - 1, point.y));
-        //Check to see if moving 'down' is possible
-        if((point.x + 1 < maze.length) && (maze[point.x + 1][point.y] != 1) && (maze[point.x + 1][point.y] != 2))
-            steps.add(new Point(point, point.x + 1, point.y));
-        //Check to see if moving 'left' is possible
-        if((point.y - 1 >= 0) && (maze[point.x][point.y - 1] != 1) && (maze[point.x][point.y - 1] != 2))
-            steps.add(new Point(point, point.x, point.y - 1));
-        //Check to see if moving 'right' is possible
-        if((point.y + 1 < maze.length) && (maze[point.x][point.y + 1] != 1) && (maze[point.x][point.y + 1] != 2))
-            steps.add(new Point(point, point.x, point.y + 1));
-        return steps;
+    //Helper method that copies maze into a reusable grid, replacing (and closing) the grid passed only if its dimension or storage differ
+    private MazeGrid copyInto(MazeGrid reusable, MazeGrid maze){
+        if(reusable == null || reusable.getDim() != maze.getDim() || reusable instanceof MappedMazeGrid != maze instanceof MappedMazeGrid){
+            if(reusable != null) reusable.close();
+            return maze.copy();
+        }
+        reusable.copyFrom(maze);
+        return reusable;
     }
 
     //Helper method that returns list of possible non-restricted steps from the current point passed while also determining heuristic for priority (used by A* search algorithm)
-    private ArrayList<Point> generateStepsWithHeuristic(int[][] maze, Point point, int stepsTaken){
+    private ArrayList<Point> generateStepsWithHeuristic(MazeGrid maze, Point point, int stepsTaken){
         ArrayList<Point> steps = new ArrayList<>();
         //Check to see if moving 'up' is possible
-        if((point.x - 1 >= 0) && (maze[point.x - 1][point.y] != 1) && (maze[point.x - 1][point.y] != 2))
+        if((point.x - 1 >= 0) && maze.isOpen(point.x - 1, point.y))
             steps.add(new Point(point, point.x - 1, point.y, stepsTaken + 1,getHeuristic("up", maze, point.x - 1, point.y, stepsTaken + 1)));
         //Check to see if moving 'down' is possible
-        if((point.x + 1 < maze.length) && (maze[point.x + 1][point.y] != 1) && (maze[point.x + 1][point.y] != 2))
+        if((point.x + 1 < maze.getDim()) && maze.isOpen(point.x + 1, point.y))
             steps.add(new Point(point, point.x + 1, point.y, stepsTaken + 1,getHeuristic("down", maze,point.x + 1, point.y, stepsTaken + 1)));
         //Check to see if moving 'left' is possible
-        if((point.y - 1 >= 0) && (maze[point.x][point.y - 1] != 1) && (maze[point.x][point.y - 1] != 2))
+        if((point.y - 1 >= 0) && maze.isOpen(point.x, point.y - 1))
             steps.add(new Point(point, point.x, point.y - 1, stepsTaken + 1,getHeuristic("left", maze, point.x, point.y - 1, stepsTaken + 1)));
         //Check to see if moving 'right' is possible
-        if((point.y + 1 < maze.length) && (maze[point.x][point.y + 1] != 1) && (maze[point.x][point.y + 1] != 2))
+        if((point.y + 1 < maze.getDim()) && maze.isOpen(point.x, point.y + 1))
             steps.add(new Point(point, point.x, point.y + 1, stepsTaken + 1, getHeuristic("right", maze, point.x, point.y + 1, stepsTaken + 1)));
         return steps;
     }
 
     //generateStepsWithHeuristic() helper method to determine determine heuristic based on 3 main factors: steps 'backward', steps with 'open space', 'euclidean' distance from goal
-    private int getHeuristic(String direction, int[][] maze, int x, int y, int stepsTaken){
-        int stepsToGoal = (maze.length - 1) * 2;
+    private int getHeuristic(String direction, MazeGrid maze, int x, int y, int stepsTaken){
+        int stepsToGoal = (maze.getDim() - 1) * 2;
         int openSpace = 0;
         int stepsRemaining = stepsToGoal - (x + y);
         if(direction.equals("down")){
-            for(int i = x+1; i < maze.length; i++){
-                if(maze[i][y] != 1 && maze[i][y] != 2)
+            for(int i = x+1; i < maze.getDim(); i++){
+                if(maze.isOpen(i, y))
                     openSpace++;
                 else
                     break;
             }
         }else if(direction.equals("right")){
-            for(int i = y+1; i < maze.length; i++){
-                if(maze[x][i] != 1 && maze[x][i] != 2)
+            for(int i = y+1; i < maze.getDim(); i++){
+                if(maze.isOpen(x, i))
                     openSpace++;
                 else
                     break;
@@ -0,0 +1,93 @@
+package MazePackage;
+
+//Deterministic approximation of the probability that each cell is on fire at each step, with no sampling and no random numbers
+//Each step carries the probabilities forward with the expected spread rule: a cell that is not yet burning catches fire unless every
+//neighbour fails to spread to it, and a neighbour burning with probability P spreads with probability q * P, so
+//  P'(c) = P(c) + (1 - P(c)) * (1 - prod over neighbours n of (1 - q * P(n)))
+//Neighbours are treated as independent (mean field), so a cell's own probability flows back to it through its neighbours and the
+//fire front moves faster than it really does: the map is exact for q = 1 and overestimates the risk for lower q, more so the lower q
+//and the longer the horizon. Use it as a cheap conservative risk field and BurnProbabilityMap when calibrated values are needed
+//Frames are stored with a one cell border of zeros around the maze and a mask that is 1 for flammable cells and 0 for obstacles, so
+//the inner loop has no bounds checks or branches
+//Propagation stops early once no probability moves by more than the tolerance, later steps then read the last frame
+public class MeanFieldFire {
+
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    private final int dim;
+    private final int stride;
+    private final int frameSize;
+    private final int horizon;
+    private final int frames;       //frames computed, fewer than horizon + 1 if the map converged early
+    private final double[] burning; //burning[t * frameSize + (x + 1) * stride + (y + 1)] = P(cell (x, y) on fire after t steps)
+
+    private MeanFieldFire(int dim, int horizon, int frames, double[] burning){
+        this.dim = dim;
+        this.stride = dim + 2;
+        this.frameSize = stride * stride;
+        this.horizon = horizon;
+        this.frames = frames;
+        this.burning = burning;
+    }
+
+    public static MeanFieldFire propagate(MazeGrid maze, double q, int horizon){
+        return propagate(maze, q, horizon, DEFAULT_TOLERANCE);
+    }
+
+    //Propagates the fire of the current maze state for up to 'horizon' steps, stopping once the largest change in a step is below tolerance
+    public static MeanFieldFire propagate(MazeGrid maze, double q, int horizon, double tolerance){
+        if(horizon < 0) throw new IllegalArgumentException("Horizon must not be negative: " + horizon);
+        int dim = maze.getDim();
+        int stride = dim + 2;
+        int frameSize = stride * stride;
+        double[] flammable = new double[frameSize];
+        double[] burning = new double[(horizon + 1) * frameSize];
+        for(int x=0; x < dim; x++){
+            for(int y=0; y < dim; y++){
+                int value = maze.getCell(x * dim + y);
+                int i = (x + 1) * stride + (y + 1);
+                if(value == 2){
+                    burning[i] = 1;
+                }else if(value != 1){
+                    flammable[i] = 1;
+                }
+            }
+        }
+        int frames = 1;
+        for(int t=1; t <= horizon; t++){
+            int prev = (t - 1) * frameSize;
+            int curr = t * frameSize;
+            double change = 0;
+            for(int x=1; x <= dim; x++){
+                int end = x * stride + dim;
+                for(int i = x * stride + 1; i <= end; i++){
+                    double p = burning[prev + i];
+                    double spared = (1 - q * burning[prev + i - stride]) * (1 - q * burning[prev + i + stride])
+                                  * (1 - q * burning[prev + i - 1]) * (1 - q * burning[prev + i + 1]);
+                    double next = p + (1 - p) * (1 - spared) * flammable[i];
+                    burning[curr + i] = next;
+                    change = Math.max(change, next - p);
+                }
+            }
+            frames = t + 1;
+            if(change < tolerance) break;
+        }
+        return new MeanFieldFire(dim, horizon, frames, burning);
+    }
+
+    //Approximate probability that cell (x, y) is on fire after t steps, steps past the last frame computed use that frame
+    public double probability(int x, int y, int t){
+        if(t >= frames) t = frames - 1;
+        return burning[t * frameSize + (x + 1) * stride + (y + 1)];
+    }
+
+    public int getHorizon(){
+        return horizon;
+    }
+
+    //Number of steps actually propagated, less than the horizon if the map converged early
+    public int getStepsComputed(){
+        return frames - 1;
+    }
+
+}
@@ -0,0 +1,435 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+//Level-synchronous parallel Breadth-First Search on a fork/join pool for very large mazes
+//Each level is expanded either top-down (every frontier cell claims its unvisited neighbours) or bottom-up (every unvisited cell looks
+//for a neighbour in the frontier), switching to bottom-up when the frontier touches a large share of the unvisited cells and back
+//when it shrinks again (direction-optimizing BFS); small levels, common in mazes where frontiers stay narrow, are expanded sequentially
+//The sequential cutoff is sized from the pool: a level is split once every worker gets CELLS_PER_WORKER frontier cells, and a pool of
+//one worker never splits. Frontiers of a grid maze are only O(dim) wide, so with many cores the cutoff has to stay well below dim; all
+//thresholds can also be set explicitly to tune them for a machine
+//Results match GridSearch.bfs() exactly: a cell's parent is the frontier cell that comes first in the sequential queue order (the one
+//with the lowest rank), and the next frontier is sorted by (parent rank, direction up/down/left/right), which is the order the
+//sequential queue would hold it in
+//Buffers are sized for the largest maze seen and reused, one instance runs one search at a time
+public class ParallelBFS {
+
+    public static final int CELLS_PER_WORKER = 256;    //frontier cells each worker needs before a level is split between workers
+    public static final int DEFAULT_ALPHA = 14;         //go bottom-up when frontier edges exceed unvisited cells / alpha
+    public static final int DEFAULT_BETA = 24;          //go back top-down when the frontier is below all cells / beta
+    private static final int TASKS_PER_WORKER = 4;      //top-down leaf tasks per worker, so work stealing can even out the level
+    private static final int MIN_TOP_DOWN_GRAIN = 64;   //fewest frontier cells per top-down leaf task
+    private static final int BOTTOM_UP_GRAIN = 1 << 15; //maze cells per bottom-up leaf task (a multiple of 64)
+
+    private final ForkJoinPool pool;
+    private final int sequentialLevel;                  //top-down levels with fewer frontier cells are expanded by the calling thread
+    private final int alpha;
+    private final int beta;
+    private int topDownGrain;                           //frontier cells per top-down leaf task in the current level
+
+    private int capacity = 0;
+    private long[] visited = new long[0];
+    private long[] inFrontier = new long[0];
+    private int[] rank = new int[0];                    //position of each frontier cell in the current frontier
+    private AtomicIntegerArray parent = new AtomicIntegerArray(0); //parent cell once visited, lowest claiming rank while a level is built
+    private int[] frontier = new int[0];
+    private int[] nextBuffer = new int[0];
+    private int frontierSize = 0;
+
+    private MazeGrid maze;
+    private int dim;
+    private int distance = -1;
+    private int pointsExplored = 0;
+    private int bottomUpLevels = 0;
+    private int parallelLevels = 0;
+
+    public ParallelBFS(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    //Thresholds sized from the parallelism of the pool
+    public ParallelBFS(ForkJoinPool pool){
+        this(pool, defaultSequentialLevel(pool.getParallelism()), DEFAULT_ALPHA, DEFAULT_BETA);
+    }
+
+    //Explicit thresholds: top-down levels below sequentialLevel frontier cells run on the calling thread (0 splits every level),
+    //alpha and beta set the switches to bottom-up and back (a larger alpha switches to bottom-up later)
+    public ParallelBFS(ForkJoinPool pool, int sequentialLevel, int alpha, int beta){
+        if(sequentialLevel < 0 || alpha < 1 || beta < 1)
+            throw new IllegalArgumentException("Invalid thresholds: sequentialLevel=" + sequentialLevel + ", alpha=" + alpha + ", beta=" + beta);
+        this.pool = pool;
+        this.sequentialLevel = sequentialLevel;
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    //Frontier size from which a level is split between 'workers' workers, never for a single worker
+    public static int defaultSequentialLevel(int workers){
+        return (workers <= 1) ? Integer.MAX_VALUE : workers * CELLS_PER_WORKER;
+    }
+
+    //Steps from start to goal found by the last search, -1 if goal was not reached
+    public int getDistance(){
+        return distance;
+    }
+
+    //Number of cells reached (excluding the start) by the last search
+    public int getPointsExplored(){
+        return pointsExplored;
+    }
+
+    //Number of levels of the last search that were expanded bottom-up
+    public int getBottomUpLevels(){
+        return bottomUpLevels;
+    }
+
+    //Number of levels of the last search that were split between the workers of the pool (bottom-up levels included)
+    public int getParallelLevels(){
+        return parallelLevels;
+    }
+
+    //Breadth-First Search from start to goal, returns goal if it can be reached, -1 otherwise; use tracePath() to get the path
+    public int bfs(MazeGrid maze, int start, int goal){
+        this.maze = maze;
+        this.dim = maze.getDim();
+        int cells = dim * dim;
+        reset(cells);
+        distance = -1;
+        pointsExplored = 0;
+        bottomUpLevels = 0;
+        parallelLevels = 0;
+        frontier[0] = start;
+        frontierSize = 1;
+        setBit(visited, start);
+        parent.set(start, start);
+        int unvisited = cells - 1;
+        boolean bottomUp = false;
+        for(int level = 0; frontierSize > 0; level++){
+            if(isBitSet(visited, goal)){
+                distance = level;
+                return goal;
+            }
+            long frontierEdges = 4L * frontierSize;
+            if(!bottomUp && frontierEdges > unvisited / alpha){
+                bottomUp = true;
+            }else if(bottomUp && frontierSize < cells / beta){
+                bottomUp = false;
+            }
+            if(!bottomUp && frontierSize < sequentialLevel){
+                expandSequential();
+                unvisited -= frontierSize;
+                pointsExplored += frontierSize;
+                continue;
+            }
+            parallelLevels++;
+            for(int i=0; i < frontierSize; i++){
+                rank[frontier[i]] = i;
+            }
+            topDownGrain = Math.max(MIN_TOP_DOWN_GRAIN, frontierSize / (pool.getParallelism() * TASKS_PER_WORKER));
+            long[] keys;
+            if(bottomUp){
+                bottomUpLevels++;
+                for(int i=0; i < frontierSize; i++) setBit(inFrontier, frontier[i]);
+                keys = pool.invoke(new BottomUpTask(0, cells)).toArray();
+                for(int i=0; i < frontierSize; i++) clearBit(inFrontier, frontier[i]);
+            }else{
+                keys = claimsToKeys(pool.invoke(new TopDownTask(0, frontierSize)).toArray());
+            }
+            nextFrontier(keys);
+            unvisited -= frontierSize;
+            pointsExplored += frontierSize;
+        }
+        return -1;
+    }
+
+    //Path from the start of the last search to goal as a list of Points
+    public ArrayList<Point> tracePath(int goal){
+        int length = 1;
+        for(int cell = goal; parent.get(cell) != cell; cell = parent.get(cell)) length++;
+        Point[] chain = new Point[length];
+        int cell = goal;
+        for(int i = length - 1; i >= 0; i--){
+            chain[i] = new Point(null, cell / dim, cell % dim);
+            cell = parent.get(cell);
+        }
+        ArrayList<Point> path = new ArrayList<>(length);
+        for(int i=0; i < length; i++){
+            if(i > 0) chain[i].parent = chain[i - 1];
+            path.add(chain[i]);
+        }
+        return path;
+    }
+
+//------------------------------ Levels ------------------------------
+    //Expands the frontier in queue order on the calling thread, which produces the next frontier already in sequential order
+    private void expandSequential(){
+        int size = 0;
+        for(int i=0; i < frontierSize; i++){
+            if(nextBuffer.length < size + 4) nextBuffer = Arrays.copyOf(nextBuffer, Math.max(16, nextBuffer.length * 2));
+            int cell = frontier[i];
+            int x = cell / dim;
+            int y = cell - x * dim;
+            if(x > 0 && visit(cell - dim, cell)) nextBuffer[size++] = cell - dim;
+            if(x < dim - 1 && visit(cell + dim, cell)) nextBuffer[size++] = cell + dim;
+            if(y > 0 && visit(cell - 1, cell)) nextBuffer[size++] = cell - 1;
+            if(y < dim - 1 && visit(cell + 1, cell)) nextBuffer[size++] = cell + 1;
+        }
+        int[] swap = frontier;
+        frontier = nextBuffer;
+        nextBuffer = swap;
+        frontierSize = size;
+    }
+
+    private boolean visit(int cell, int from){
+        if(isBitSet(visited, cell) || !isOpenCell(cell)) return false;
+        setBit(visited, cell);
+        parent.set(cell, from);
+        return true;
+    }
+
+    //Keys are (parent rank << 2 | direction), sorting them gives the sequential queue order, and the cell itself is recovered from them
+    private void nextFrontier(long[] keys){
+        Arrays.parallelSort(keys);
+        if(nextBuffer.length < keys.length) nextBuffer = new int[Math.max(keys.length, nextBuffer.length * 2)];
+        for(int i=0; i < keys.length; i++){
+            int from = frontier[(int) (keys[i] >>> 2)];
+            int cell = neighbour(from, (int) (keys[i] & 3));
+            nextBuffer[i] = cell;
+            parent.set(cell, from);
+            setBit(visited, cell);
+        }
+        int[] swap = frontier;
+        frontier = nextBuffer;
+        nextBuffer = swap;
+        frontierSize = keys.length;
+    }
+
+    //Turns the cells claimed top-down into keys, their claim slot holds the lowest frontier rank that reached them once the level is done
+    private long[] claimsToKeys(long[] claimed){
+        for(int i=0; i < claimed.length; i++){
+            int cell = (int) claimed[i];
+            int claimRank = parent.get(cell);
+            int from = frontier[claimRank];
+            int dir = (cell == from - dim) ? 0 : (cell == from + dim) ? 1 : (cell == from - 1) ? 2 : 3;
+            claimed[i] = ((long) claimRank << 2) | dir;
+        }
+        return claimed;
+    }
+
+    private int neighbour(int cell, int dir){
+        switch(dir){
+            case 0: return cell - dim;
+            case 1: return cell + dim;
+            case 2: return cell - 1;
+            default: return cell + 1;
+        }
+    }
+
+    private boolean isOpenCell(int cell){
+        int value = maze.getCell(cell);
+        return value != 1 && value != 2;
+    }
+
+    //Top-down: each frontier cell lowers the claim of its unvisited open neighbours to its rank, the first claimer records the neighbour
+    //Claims are only final once every task of the level has joined, so the keys are built afterwards by claimsToKeys()
+    private final class TopDownTask extends RecursiveTask<KeyBuffer> {
+        private static final long serialVersionUID = 1L;
+        private final int from, to;
+
+        TopDownTask(int from, int to){
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected KeyBuffer compute(){
+            if(to - from > topDownGrain){
+                int mid = (from + to) >>> 1;
+                TopDownTask left = new TopDownTask(from, mid);
+                left.fork();
+                KeyBuffer right = new TopDownTask(mid, to).compute();
+                return left.join().append(right);
+            }
+            KeyBuffer claimed = new KeyBuffer();
+            for(int i = from; i < to; i++){
+                int cell = frontier[i];
+                int x = cell / dim;
+                int y = cell - x * dim;
+                if(x > 0) claim(cell - dim, i, claimed);
+                if(x < dim - 1) claim(cell + dim, i, claimed);
+                if(y > 0) claim(cell - 1, i, claimed);
+                if(y < dim - 1) claim(cell + 1, i, claimed);
+            }
+            return claimed;
+        }
+
+        private void claim(int cell, int claimRank, KeyBuffer claimed){
+            if(isBitSet(visited, cell) || !isOpenCell(cell)) return;
+            while(true){
+                int current = parent.get(cell);
+                if(current == -1){
+                    if(parent.compareAndSet(cell, -1, claimRank)){
+                        claimed.add(cell);
+                        return;
+                    }
+                }else if(current > claimRank){
+                    if(parent.compareAndSet(cell, current, claimRank)) return;
+                }else{
+                    return;
+                }
+            }
+        }
+    }
+
+    //Bottom-up: each unvisited open cell takes the frontier neighbour with the lowest rank as parent, no two tasks write the same cell
+    private final class BottomUpTask extends RecursiveTask<KeyBuffer> {
+        private static final long serialVersionUID = 1L;
+        private final int from, to;
+
+        BottomUpTask(int from, int to){
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected KeyBuffer compute(){
+            if(to - from > BOTTOM_UP_GRAIN){
+                int mid = ((from + to) >>> 1) & ~63;  //split on a bitset word, so no two tasks scan the same word
+                BottomUpTask left = new BottomUpTask(from, mid);
+                left.fork();
+                KeyBuffer right = new BottomUpTask(mid, to).compute();
+                return left.join().append(right);
+            }
+            KeyBuffer keys = new KeyBuffer();
+            //Walks the unvisited cells a word of the visited bitset at a time, so the visited part of the maze costs one read per 64 cells
+            for(int word = from >>> 6; word < (to + 63) >>> 6; word++){
+                for(long unvisited = ~visited[word]; unvisited != 0; unvisited &= unvisited - 1){
+                    int cell = (word << 6) + Long.numberOfTrailingZeros(unvisited);
+                    if(cell >= to) break;
+                    addBottomUpKey(cell, keys);
+                }
+            }
+            return keys;
+        }
+
+        private void addBottomUpKey(int cell, KeyBuffer keys){
+            if(!isOpenCell(cell)) return;
+            int x = cell / dim;
+            int y = cell - x * dim;
+            long best = Long.MAX_VALUE;
+            //Direction is the one taken from the parent to this cell: from the cell below the move is up (0), and so on
+            if(x < dim - 1 && isBitSet(inFrontier, cell + dim)) best = Math.min(best, ((long) rank[cell + dim] << 2) | 0);
+            if(x > 0 && isBitSet(inFrontier, cell - dim)) best = Math.min(best, ((long) rank[cell - dim] << 2) | 1);
+            if(y < dim - 1 && isBitSet(inFrontier, cell + 1)) best = Math.min(best, ((long) rank[cell + 1] << 2) | 2);
+            if(y > 0 && isBitSet(inFrontier, cell - 1)) best = Math.min(best, ((long) rank[cell - 1] << 2) | 3);
+            if(best != Long.MAX_VALUE) keys.add(best);
+        }
+    }
+
+    //Growable list of longs returned by the level tasks, cells for top-down levels and keys for bottom-up levels
+    private static final class KeyBuffer {
+        private long[] data = new long[16];
+        private int size = 0;
+
+        void add(long value){
+            if(size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        KeyBuffer append(KeyBuffer other){
+            if(size + other.size > data.length) data = Arrays.copyOf(data, Math.max(size + other.size, size * 2));
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        long[] toArray(){
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+//------------------------------ Buffers ------------------------------
+    private void reset(int cells){
+        if(capacity < cells){
+            capacity = cells;
+            visited = new long[(cells + 63) >>> 6];
+            inFrontier = new long[(cells + 63) >>> 6];
+            rank = new int[cells];
+            parent = new AtomicIntegerArray(cells);
+            frontier = new int[1024];
+            nextBuffer = new int[1024];
+        }else{
+            Arrays.fill(visited, 0L);
+        }
+        //parent doubles as the claim slot, so it has to start at -1 (unclaimed) for every cell
+        for(int i=0; i < cells; i++){
+            parent.lazySet(i, -1);
+        }
+    }
+
+    private static boolean isBitSet(long[] bits, int i){
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void setBit(long[] bits, int i){
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    private static void clearBit(long[] bits, int i){
+        bits[i >>> 6] &= ~(1L << i);
+    }
+
+//------------------------------ Benchmark ------------------------------
+    //Usage: ParallelBFS <dim> <p> [seed] [workers...]
+    //Times GridSearch.bfs() and this search with each number of workers (default 1, 2, 4, ... up to the cores) on one maze, best of
+    //five runs after two untimed ones, with the levels that were split and expanded bottom-up, to measure the scaling on a machine
+    public static void main(String[] args){
+        if(args.length < 2){
+            System.out.println("Usage: ParallelBFS <dim> <p> [seed] [workers...]");
+            return;
+        }
+        int dim = Integer.parseInt(args[0]);
+        double p = Double.parseDouble(args[1]);
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : 1;
+        List<Integer> workerCounts = new ArrayList<>();
+        for(int i=3; i < args.length; i++) workerCounts.add(Integer.parseInt(args[i]));
+        if(workerCounts.isEmpty()){
+            for(int w=1; w < Runtime.getRuntime().availableProcessors(); w *= 2) workerCounts.add(w);
+            workerCounts.add(Runtime.getRuntime().availableProcessors());
+        }
+        MazeGrid maze = new MazeManager().generateMaze(new MazeGrid(dim), p, new SplittableRandom(seed));
+        int goal = dim * dim - 1;
+        GridSearch sequential = new GridSearch();
+        long baseline = bestTime(() -> sequential.bfs(maze, 0, goal));
+        System.out.println(String.format("GridSearch.bfs(): %.1f ms, distance %d", baseline / 1e6, sequential.bfs(maze, 0, goal) < 0 ? -1 : sequential.tracePath(goal, dim).size() - 1));
+        for(int workers : workerCounts){
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try{
+                ParallelBFS search = new ParallelBFS(pool);
+                long nanos = bestTime(() -> search.bfs(maze, 0, goal));
+                System.out.println(String.format("ParallelBFS, %d workers: %.1f ms (%.2fx), distance %d, %d parallel levels, %d bottom-up levels",
+                        workers, nanos / 1e6, baseline / (double) nanos, search.getDistance(), search.getParallelLevels(), search.getBottomUpLevels()));
+            }finally{
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static long bestTime(Runnable search){
+        long best = Long.MAX_VALUE;
+        for(int run=0; run < 7; run++){
+            long begin = System.nanoTime();
+            search.run();
+            if(run >= 2) best = Math.min(best, System.nanoTime() - begin);
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,56 @@
+package MazePackage;
+
+import java.util.SplittableRandom;
+
+//Derives independent, reproducible random streams from an experiment seed and the coordinates of one run
+//The same (seed, maze id, q, trial) always gives the same stream and different coordinates give unrelated streams, so a run can be
+//reproduced on its own and parallel runs never share a generator
+//Common random numbers: the fire does not depend on what the agent does, so handing every strategy its own copy of the same trial
+//stream makes them all face exactly the same fire, and differences between strategies are no longer hidden by different fires
+public class RandomStreams {
+
+    private static final long TASK_DOMAIN = 0x5441534B5441534BL;  //"TASKTASK", salts forTask() seeds away from forTrial() ones
+
+    private RandomStreams(){
+    }
+
+    //Stream used to generate maze number mazeId of an experiment
+    public static SplittableRandom forMaze(long experimentSeed, int mazeId){
+        return new SplittableRandom(mazeSeed(experimentSeed, mazeId));
+    }
+
+    //Seed behind forMaze(), new SplittableRandom(mazeSeed(...)) gives the same stream
+    public static long mazeSeed(long experimentSeed, int mazeId){
+        return seed(experimentSeed, mazeId, Double.NaN, -1);
+    }
+
+    //Stream used for the fire of one trial on one maze at flammability q, create one per strategy for common random numbers
+    public static SplittableRandom forTrial(long experimentSeed, int mazeId, double q, int trial){
+        return new SplittableRandom(seed(experimentSeed, mazeId, q, trial));
+    }
+
+    //Stream of one (parameter, trial) task of an experiment (see ExperimentRunner), parameter is the index of the parameter value
+    //The experiment seed is salted with a domain tag first, so a task stream is not the forTrial() stream of maze 'parameter' at q = 0
+    public static SplittableRandom forTask(long experimentSeed, int parameter, int trial){
+        long h = mix(mix(experimentSeed) ^ TASK_DOMAIN);
+        h = mix(h ^ parameter);
+        return new SplittableRandom(mix(h ^ trial));
+    }
+
+    //Seed behind forTrial(), e.g. to store in a MazeFile or report alongside a result
+    public static long seed(long experimentSeed, int mazeId, double q, int trial){
+        long h = mix(experimentSeed);
+        h = mix(h ^ mazeId);
+        h = mix(h ^ Double.doubleToLongBits(q));
+        return mix(h ^ trial);
+    }
+
+    //SplitMix64 step (golden ratio increment and finalizer), every input bit affects every output bit and 0 does not map to 0
+    private static long mix(long z){
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,34 @@
+package MazePackage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//Rows x columns table of long totals that tasks running in parallel add to without locking (one LongAdder per cell)
+//Totals are exact and do not depend on the order the tasks ran in, so a table filled in parallel equals one filled sequentially;
+//record counts or integer amounts and convert them to averages once all tasks are done
+public class ResultTable {
+
+    private final int columns;
+    private final LongAdder[] cells;
+
+    public ResultTable(int rows, int columns){
+        this.columns = columns;
+        this.cells = new LongAdder[rows * columns];
+        for(int i=0; i < cells.length; i++){
+            cells[i] = new LongAdder();
+        }
+    }
+
+    public void add(int row, int column, long amount){
+        cells[row * columns + column].add(amount);
+    }
+
+    public void increment(int row, int column){
+        cells[row * columns + column].increment();
+    }
+
+    //Total of the cell, only exact once no task is adding to it anymore
+    public long get(int row, int column){
+        return cells[row * columns + column].sum();
+    }
+
+}
@@ -0,0 +1,175 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Bounded least-recently-used cache of search results, keyed by the maze fingerprint, its dimension, start, goal and the kind of search
+//The steps already taken at start are part of the key too, since the A* heuristic in MazeManager depends on them
+//Fingerprints only pick the bucket: every entry keeps a packed copy of its maze, compared with the maze of the query on a hit, so two
+//mazes whose fingerprints collide never share results. Consecutive entries for the same maze share one copy
+//Paths are stored as flat int arrays and rebuilt into fresh Points on every hit, so callers can keep or modify what they get back
+//Not thread safe, each MazeManager owns its own cache
+public class SearchCache {
+
+    public static final int DFS = 0;
+    public static final int BFS = 1;
+    public static final int A_STAR = 2;
+
+    private static final int[] NO_PATH = new int[0];
+    private static final int FIELDS = 4;    //x, y, stepsTaken and heuristic of every path point
+
+    private final int capacity;
+    private final LinkedHashMap<Key, int[]> entries;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long[] lastCells;       //copy held by the entry stored last, reused while queries stay on the same maze
+
+    public SearchCache(int capacity){
+        if(capacity < 1) throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, int[]>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest){
+                if(size() <= SearchCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public long getHits(){
+        return hits;
+    }
+
+    public long getMisses(){
+        return misses;
+    }
+
+    public long getEvictions(){
+        return evictions;
+    }
+
+    public int size(){
+        return entries.size();
+    }
+
+    public void clear(){
+        entries.clear();
+        lastCells = null;
+    }
+
+    @Override
+    public String toString(){
+        return "SearchCache[size=" + entries.size() + "/" + capacity + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+
+//------------------------------ Path Results ------------------------------
+    //Cached path rebuilt starting with the start Point passed (as the searches return it), an empty list if the cached result is that
+    //goal cannot be reached and null if nothing is cached for the query
+    public ArrayList<Point> getPath(int kind, MazeGrid maze, Point start, Point goal){
+        int[] packed = entries.get(new Key(kind, maze, start, goal, null));
+        if(packed == null){
+            misses++;
+            return null;
+        }
+        hits++;
+        if(packed == NO_PATH) return new ArrayList<>(0);
+        ArrayList<Point> path = new ArrayList<>(packed.length / FIELDS);
+        path.add(start);
+        Point prev = start;
+        for(int i = FIELDS; i < packed.length; i += FIELDS){
+            prev = new Point(prev, packed[i], packed[i + 1], packed[i + 2], packed[i + 3]);
+            path.add(prev);
+        }
+        return path;
+    }
+
+    //Stores the result of a path search, null meaning that goal could not be reached
+    public void putPath(int kind, MazeGrid maze, Point start, Point goal, ArrayList<Point> path){
+        int[] packed = NO_PATH;
+        if(path != null){
+            packed = new int[path.size() * FIELDS];
+            for(int i=0; i < path.size(); i++){
+                Point p = path.get(i);
+                packed[i * FIELDS] = p.x;
+                packed[i * FIELDS + 1] = p.y;
+                packed[i * FIELDS + 2] = p.stepsTaken;
+                packed[i * FIELDS + 3] = p.heuristic;
+            }
+        }
+        entries.put(storedKey(kind, maze, start, goal), packed);
+    }
+
+//------------------------------ Reachability Results ------------------------------
+    //Cached reachability answer: 1 reachable, 0 not reachable, -1 not cached
+    public int getReachable(int kind, MazeGrid maze, Point start, Point goal){
+        int[] packed = entries.get(new Key(kind, maze, start, goal, null));
+        if(packed == null){
+            misses++;
+            return -1;
+        }
+        hits++;
+        return (packed == NO_PATH) ? 0 : 1;
+    }
+
+    public void putReachable(int kind, MazeGrid maze, Point start, Point goal, boolean reachable){
+        entries.put(storedKey(kind, maze, start, goal), reachable ? new int[]{1} : NO_PATH);
+    }
+
+    //Key holding its own copy of the maze cells, so the entry stays valid after the caller changes the maze
+    private Key storedKey(int kind, MazeGrid maze, Point start, Point goal){
+        if(lastCells == null || !maze.hasCells(lastCells)) lastCells = maze.packedCells();
+        return new Key(kind, maze, start, goal, lastCells);
+    }
+
+    //A lookup key refers to the maze of the query (cells null), a stored key to a copy of its cells (maze null)
+    //The map only ever compares a key passed to it with the keys it stores, never two lookup keys
+    private static final class Key {
+        private final long fingerprint;
+        private final int dim;
+        private final int kind;
+        private final int startX, startY, startSteps, goalX, goalY;
+        private final MazeGrid maze;
+        private final long[] cells;
+
+        Key(int kind, MazeGrid maze, Point start, Point goal, long[] cells){
+            this.fingerprint = maze.fingerprint();
+            this.dim = maze.getDim();
+            this.maze = (cells == null) ? maze : null;
+            this.cells = cells;
+            this.kind = kind;
+            this.startX = start.x;
+            this.startY = start.y;
+            this.startSteps = start.stepsTaken;
+            this.goalX = goal.x;
+            this.goalY = goal.y;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            if(fingerprint != k.fingerprint || dim != k.dim || kind != k.kind
+                    || startX != k.startX || startY != k.startY || startSteps != k.startSteps || goalX != k.goalX || goalY != k.goalY) return false;
+            if(cells == null) return maze.hasCells(k.cells);
+            if(k.cells == null) return k.maze.hasCells(cells);
+            return Arrays.equals(cells, k.cells);
+        }
+
+        @Override
+        public int hashCode(){
+            int h = Long.hashCode(fingerprint);
+            h = 31 * h + dim;
+            h = 31 * h + kind;
+            h = 31 * h + startX;
+            h = 31 * h + startY;
+            h = 31 * h + startSteps;
+            h = 31 * h + goalX;
+            return 31 * h + goalY;
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package MazePackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//Space-time A* used by strategy4(), plans over (x, y, t) states against a predicted ignition time for every cell
+//Ignition times come from the distance to the nearest fire: crossing d cells takes the sum of d Geometric(q) delays (mean d/q),
+//the prediction is that mean minus a number of standard deviations so a plan stays safe when the fire runs ahead of its average
+//A state (cell, t) is pruned when the cell is predicted to ignite at or before t. Each cell has a single safe window [0, ignition),
+//so arriving earlier is never worse than arriving later; the per-cell table therefore only keeps the earliest arrival time,
+//which bounds the search to one state per cell and also makes waiting in place useless (it can only move a state later in its window)
+//Arrays are reused by later plans, so one instance must not be shared between threads
+public class SpaceTimePlanner {
+
+    private static final int NEVER = Integer.MAX_VALUE;
+    private static final double[] DEVIATIONS = {1.0, 0.0};  //conservative prediction first, then the mean
+
+    private final FireDistanceField fireField = new FireDistanceField();
+    private final CellHeap heap = new CellHeap();
+    private int[] ignition = new int[0];   //predicted step at which each cell catches fire, NEVER if no fire can reach it
+    private int[] arrival = new int[0];    //earliest step each cell has been reached at, NEVER if not reached
+    private int[] parent = new int[0];
+    private int pointsExplored = 0;
+
+    public int getPointsExplored(){
+        return pointsExplored;
+    }
+
+    //Plans a path from start to goal where every cell is reached before its predicted ignition, path.get(t) is the cell occupied after t steps
+    //Falls back to the mean prediction and then to ignoring the fire when no such path exists, returns null if goal cannot be reached at all
+    public ArrayList<Point> plan(MazeGrid maze, Point start, Point goal, double q){
+        int dim = maze.getDim();
+        int cells = dim * dim;
+        if(ignition.length < cells){
+            ignition = new int[cells];
+            arrival = new int[cells];
+            parent = new int[cells];
+        }
+        fireField.build(maze);
+        for(double deviations : DEVIATIONS){
+            predictIgnition(dim, q, deviations);
+            if(search(maze, start, goal)) return tracePath(goal, dim);
+        }
+        Arrays.fill(ignition, 0, cells, NEVER);
+        if(search(maze, start, goal)) return tracePath(goal, dim);
+        return null;
+    }
+
+    //Fills ignition[] with the mean spread time d/q minus the given number of standard deviations sqrt(d(1-q))/q,
+    //never earlier than d since the fire advances at most one cell per step
+    private void predictIgnition(int dim, double q, double deviations){
+        for(int x=0; x < dim; x++){
+            for(int y=0; y < dim; y++){
+                int d = fireField.distanceTo(x, y);
+                int cell = x * dim + y;
+                if(d < 0 || q <= 0){
+                    ignition[cell] = NEVER;
+                }else{
+                    double predicted = (d - deviations * Math.sqrt(d * (1 - q))) / q;
+                    ignition[cell] = (int) Math.max(d, Math.min(predicted, NEVER - 1));
+                }
+            }
+        }
+    }
+
+    //A* over (cell, t) with the step count as g and Manhattan distance as h, returns true if goal was reached
+    private boolean search(MazeGrid maze, Point startPoint, Point goalPoint){
+        int dim = maze.getDim();
+        int start = startPoint.x * dim + startPoint.y;
+        int goal = goalPoint.x * dim + goalPoint.y;
+        Arrays.fill(arrival, 0, dim * dim, NEVER);
+        heap.clear();
+        pointsExplored = 0;
+        arrival[start] = 0;
+        parent[start] = -1;
+        heap.push(start, key(start, 0, dim, goalPoint));
+        while(!heap.isEmpty()){
+            long key = heap.peekKey();
+            int curr = heap.pop();
+            int t = (int) key;
+            if(t != arrival[curr]) continue;  //stale entry
+            if(curr == goal) return true;
+            pointsExplored++;
+            int x = curr / dim;
+            int y = curr - x * dim;
+            if(x > 0) relax(maze, curr, curr - dim, t + 1, goalPoint);
+            if(x < dim - 1) relax(maze, curr, curr + dim, t + 1, goalPoint);
+            if(y > 0) relax(maze, curr, curr - 1, t + 1, goalPoint);
+            if(y < dim - 1) relax(maze, curr, curr + 1, t + 1, goalPoint);
+        }
+        return false;
+    }
+
+    //search() helper that moves into next at step t unless it is blocked, predicted to be on fire by then, or already reached earlier
+    private void relax(MazeGrid maze, int curr, int next, int t, Point goalPoint){
+        if(t >= arrival[next] || ignition[next] <= t) return;
+        int value = maze.getCell(next);
+        if(value == 1 || value == 2) return;
+        arrival[next] = t;
+        parent[next] = curr;
+        heap.push(next, key(next, t, maze.getDim(), goalPoint));
+    }
+
+    //Orders by f = t + h, keeping t in the low bits so it can be read back when the state is popped
+    private long key(int cell, int t, int dim, Point goal){
+        int h = Math.abs(cell / dim - goal.x) + Math.abs(cell % dim - goal.y);
+        return ((long) (t + h) << 32) | t;
+    }
+
+    private ArrayList<Point> tracePath(Point goal, int dim){
+        int cell = goal.x * dim + goal.y;
+        Point[] chain = new Point[arrival[cell] + 1];
+        for(int i = chain.length - 1; i >= 0; i--){
+            chain[i] = new Point(null, cell / dim, cell % dim);
+            cell = parent[cell];
+        }
+        ArrayList<Point> path = new ArrayList<>(chain.length);
+        for(int i=0; i < chain.length; i++){
+            if(i > 0) chain[i].parent = chain[i - 1];
+            path.add(chain[i]);
+        }
+        return path;
+    }
+
+}
@@ -0,0 +1,45 @@
+package MazePackage;
+
+import java.util.SplittableRandom;
+
+//Checks that strategy3() ends within a bounded number of steps on fixed seeds, including the dimensions and flammabilities where it
+//used to keep swapping between paths. Run with: java MazePackage.Strategy3Test, it throws AssertionError on the first failure
+public class Strategy3Test {
+
+    private static final long SEED = 2021;
+    private static final int TRIALS = 20;
+
+    public static void main(String[] args){
+        terminates(32, 0.7);
+        terminates(31, 0.9);
+        terminates(20, 1.0);
+        System.out.println("Strategy3Test passed");
+    }
+
+    //Every trial must stop on the goal or in the fire after at most dim * dim steps, far below the cap implied by the replan budget
+    private static void terminates(int dim, double q){
+        for(int trial=0; trial < TRIALS; trial++){
+            MazeGrid maze = new MazeManager(RandomStreams.forMaze(SEED, trial)).generateMazeOfFire(dim, 0.3);
+            MazeManager manager = new MazeManager(new SplittableRandom(SEED));
+            manager.setReportOutcomes(false);
+            MazeGrid result = manager.strategy3(maze, q, RandomStreams.forTrial(SEED, trial, q, 0));
+            int steps = manager.getLastStrategy3Steps();
+            if(steps < 1 || steps > dim * dim)
+                throw new AssertionError("strategy3 took " + steps + " steps on dim=" + dim + " q=" + q + " trial=" + trial);
+            int end = result.get(dim - 1, dim - 1);
+            if(end != 7 && countBurnedPathCells(result) == 0)
+                throw new AssertionError("strategy3 neither reached the goal nor burned on dim=" + dim + " q=" + q + " trial=" + trial);
+        }
+    }
+
+    private static int countBurnedPathCells(MazeGrid maze){
+        int burned = 0;
+        for(int x=0; x < maze.getDim(); x++){
+            for(int y=0; y < maze.getDim(); y++){
+                if(maze.get(x, y) == 9) burned++;
+            }
+        }
+        return burned;
+    }
+
+}